@@ -0,0 +1,54 @@
+package algorithms;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// algorithms.State shadows the JMH annotation of the same name
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BatchBenchmark {
+    // Identifiers of a few letters and digits, as in a bulk validation job
+    private static final String REGEX = "(a|b|c|d)(a|b|c|d|0|1|2|3)*";
+
+    @Param({"10000"})
+    public int count;
+
+    private CharSequence[] inputs;
+    private MultiStreamDFA scalar;
+    private MultiStreamDFA vector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String letters = "abcd0123";
+        Random random = new Random(0);
+        inputs = new CharSequence[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder input = new StringBuilder();
+            for (int length = 4 + random.nextInt(12); length > 0; length--) {
+                input.append(letters.charAt(random.nextInt(letters.length())));
+            }
+            inputs[i] = input.toString();
+        }
+
+        State.setIdCounter(0);
+        DFA minDfa = DFA.regexToMinDFA(REGEX);
+        scalar = MultiStreamDFA.DFAtoMultiStreamDFA(minDfa);
+        vector = MultiStreamDFA.DFAtoVectorMultiStreamDFA(minDfa);
+    }
+
+    @Benchmark
+    public boolean[] matchAllScalar() {
+        return scalar.matchAll(inputs);
+    }
+
+    @Benchmark
+    public boolean[] matchAllVector() {
+        return vector.matchAll(inputs);
+    }
+}
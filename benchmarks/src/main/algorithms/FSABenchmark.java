@@ -0,0 +1,122 @@
+package algorithms;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// algorithms.State shadows the JMH annotation of the same name
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FSABenchmark {
+    @Param({"literals", "kthFromEnd", "nestedStars"})
+    public String family;
+
+    @Param({"2", "4", "8"})
+    public int size;
+
+    private String regex;
+    private NFA nfa;
+    private DFA dfa;
+    private DFA partialDfa;
+    private DFA minDfa;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        regex = RegexFamily.valueOf(family).generate(size);
+        State.setIdCounter(0);
+        nfa = NFA.regexToNFA(regex);
+        dfa = DFA.NFAtoDFA(nfa);
+        partialDfa = DFA.NFAtoPartialDFA(nfa);
+        minDfa = DFA.DFAtoMinDFA(dfa);
+    }
+
+    @Benchmark
+    public NFA regexToNFA() {
+        // Keeps state ids from growing across invocations
+        State.setIdCounter(0);
+        return NFA.regexToNFA(regex);
+    }
+
+    @Benchmark
+    public NFA regexToNFAParallel() {
+        State.setIdCounter(0);
+        return NFA.regexToNFAParallel(regex);
+    }
+
+    @Benchmark
+    public DFA NFAtoDFA() {
+        return DFA.NFAtoDFA(nfa);
+    }
+
+    @Benchmark
+    public DFA NFAtoDFAParallel() {
+        return DFA.NFAtoDFAParallel(nfa);
+    }
+
+    @Benchmark
+    public DFA DFAtoMinDFA() {
+        return DFA.DFAtoMinDFA(dfa);
+    }
+
+    @Benchmark
+    public DFA DFAtoPartialMinDFA() {
+        return DFA.DFAtoPartialMinDFA(partialDfa);
+    }
+
+    @Benchmark
+    public String toDOT() {
+        return minDfa.toDOT();
+    }
+}
+
+enum RegexFamily {
+    // Alternation of size distinct four-letter words, each in parentheses since | binds tightly
+    literals {
+        @Override
+        String generate(int size) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    sb.append('|');
+                }
+                sb.append('(').append(word(i)).append(')');
+            }
+            return sb.toString();
+        }
+    },
+
+    // (a|b)*a(a|b)^k, whose DFA has 2^(k + 1) states
+    kthFromEnd {
+        @Override
+        String generate(int size) {
+            return "(a|b)*a" + "(a|b)".repeat(size);
+        }
+    },
+
+    // (((a*b)*c)*d)* and so on, nested size levels deep
+    nestedStars {
+        @Override
+        String generate(int size) {
+            String regex = "a*";
+            for (int i = 1; i <= size; i++) {
+                regex = "(" + regex + (char) ('a' + i % 26) + ")*";
+            }
+            return regex;
+        }
+    };
+
+    abstract String generate(int size);
+
+    private static String word(int index) {
+        char[] letters = new char[4];
+        for (int i = letters.length - 1; i >= 0; i--) {
+            letters[i] = (char) ('a' + index % 26);
+            index /= 26;
+        }
+        return new String(letters);
+    }
+}
@@ -0,0 +1,68 @@
+package algorithms;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// algorithms.State shadows the JMH annotation of the same name
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+    // A comment-like token whose body is one long run of a self-loop
+    private static final String REGEX = "#(a|b|c|d|e| )*#";
+
+    @Param({"1000", "100000"})
+    public int length;
+
+    private String input;
+    private Matcher matcher;
+    private Matcher generated;
+    private CompiledDFA table;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = "#" + "abcde ".repeat(length / 6) + "#";
+        State.setIdCounter(0);
+        matcher = Matcher.compile(REGEX);
+        DFA minDfa = DFA.regexToMinDFA(REGEX);
+        generated = BytecodeDFA.DFAtoBytecodeDFA(minDfa);
+        table = CompiledDFA.DFAtoCompiledDFA(minDfa);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return matcher.matches(input);
+    }
+
+    @Benchmark
+    public boolean matchesTable() {
+        // The same table with a lookup per character, and no self-loops skipped
+        int state = table.getStart();
+        for (int i = 0; i < input.length(); i++) {
+            state = table.step(state, input.charAt(i));
+            if (state == CompiledDFA.DEAD) {
+                return false;
+            }
+        }
+        return table.isAccepting(state);
+    }
+
+    @Benchmark
+    public int longestMatch() {
+        return matcher.longestMatch(input, 0);
+    }
+
+    @Benchmark
+    public boolean matchesGenerated() {
+        return generated.matches(input);
+    }
+
+    @Benchmark
+    public int longestMatchGenerated() {
+        return generated.longestMatch(input, 0);
+    }
+}
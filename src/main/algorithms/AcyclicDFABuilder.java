@@ -0,0 +1,126 @@
+package algorithms;
+
+import java.util.*;
+
+class AcyclicDFABuilder {
+    /* Daciuk, Mihov, Watson and Watson's incremental construction of the minimal DFA for a
+    sorted list of words. Only the path of the last word added is still open; everything to the
+    left of it can no longer change, so it is merged with an equivalent state from the register
+    as soon as the next word leaves it behind. No NFA or unminimized DFA is ever built. */
+    private final Map<List<Integer>, Node> register = new HashMap<>();
+    private final Node root = new Node();
+    private String previous = null;
+    private int nodeCount = 1;
+
+    void add(String word) {
+        if (previous != null) {
+            int order = word.compareTo(previous);
+            if (order < 0) {
+                throw new IllegalArgumentException("Words are not sorted: \"" + previous +
+                        "\" comes before \"" + word + "\"");
+            }
+            if (order == 0) {
+                return;
+            }
+        }
+
+        Node node = root;
+        int prefixLength = 0;
+        while (prefixLength < word.length()) {
+            Node child = node.children.get(word.charAt(prefixLength));
+            if (child == null) {
+                break;
+            }
+            node = child;
+            prefixLength++;
+        }
+
+        if (!node.children.isEmpty()) {
+            replaceOrRegister(node);
+        }
+
+        for (int i = prefixLength; i < word.length(); i++) {
+            Node child = new Node();
+            node.children.put(word.charAt(i), child);
+            node = child;
+        }
+        node.isFinal = true;
+        previous = word;
+    }
+
+    private void replaceOrRegister(Node node) {
+        // Only the last child can still be open, since words arrive in order
+        Map.Entry<Character, Node> last = node.children.lastEntry();
+        Node child = last.getValue();
+
+        if (!child.children.isEmpty()) {
+            replaceOrRegister(child);
+        }
+
+        List<Integer> signature = child.getSignature();
+        Node equivalent = register.get(signature);
+        if (equivalent != null) {
+            node.children.put(last.getKey(), equivalent);
+        } else {
+            child.id = nodeCount++;
+            register.put(signature, child);
+        }
+    }
+
+    DFA build() {
+        if (!root.children.isEmpty()) {
+            replaceOrRegister(root);
+        }
+
+        // States are numbered breadth first from the start, following letters in order
+        Map<Node, State> states = new IdentityHashMap<>();
+        Alphabet alphabet = new Alphabet();
+        Moves moves = new Moves();
+        States finalStates = new States();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+
+        states.put(root, new State(0));
+        queue.add(root);
+
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            State from = states.get(node);
+            if (node.isFinal) {
+                finalStates.add(from);
+            }
+
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                Node child = entry.getValue();
+                State to = states.get(child);
+                if (to == null) {
+                    to = new State(states.size());
+                    states.put(child, to);
+                    queue.add(child);
+                }
+
+                alphabet.add(entry.getKey());
+                moves.add(new Move(from, entry.getKey(), to));
+            }
+        }
+
+        return new DFA(alphabet, new States(states.values()), states.get(root), finalStates,
+                moves);
+    }
+
+    private static class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        boolean isFinal;
+        int id;
+
+        List<Integer> getSignature() {
+            // Children are already in the register, so their ids tell them apart
+            List<Integer> signature = new ArrayList<>();
+            signature.add(isFinal ? 1 : 0);
+            for (Map.Entry<Character, Node> entry : children.entrySet()) {
+                signature.add((int) entry.getKey());
+                signature.add(entry.getValue().id);
+            }
+            return signature;
+        }
+    }
+}
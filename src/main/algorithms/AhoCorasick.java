@@ -0,0 +1,184 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+class AhoCorasick implements Matcher {
+    /* The trie of a set of words with its failure links folded into the table, so every state
+    has a move on every letter of the alphabet. Scanning never backtracks: a letter that leaves
+    the trie falls through to the longest suffix of the text read so far that is still in it.
+    Letters outside the alphabet go back to the root, which is state 0. */
+    static final int ROOT = 0;
+    private static final int ASCII = 128;
+
+    private final char[] alphabet;
+    private final int[] asciiColumns;
+    private final int[] table;
+    private final int[] depths;
+    private final boolean[] terminal;
+
+    // For each state, the nearest state along its failure links that ends a word, or -1
+    private final int[] outputs;
+
+    private AhoCorasick(char[] alphabet, int[] table, int[] depths, boolean[] terminal,
+                        int[] outputs) {
+        this.alphabet = alphabet;
+        this.table = table;
+        this.depths = depths;
+        this.terminal = terminal;
+        this.outputs = outputs;
+
+        asciiColumns = new int[ASCII];
+        Arrays.fill(asciiColumns, -1);
+        for (int column = 0; column < alphabet.length && alphabet[column] < ASCII; column++) {
+            asciiColumns[alphabet[column]] = column;
+        }
+    }
+
+    static AhoCorasick wordsToAhoCorasick(Collection<String> words) {
+        char[] alphabet = getAlphabet(words);
+        int columns = alphabet.length;
+        int stateCount = 1 + words.stream().mapToInt(String::length).sum();
+
+        int[] table = new int[stateCount * columns];
+        Arrays.fill(table, -1);
+        int[] depths = new int[stateCount];
+        boolean[] terminal = new boolean[stateCount];
+        int size = 1;
+
+        // The trie itself, in which -1 marks a missing child
+        for (String word : words) {
+            int state = ROOT;
+            for (char letter : word.toCharArray()) {
+                int index = state * columns + Arrays.binarySearch(alphabet, letter);
+                if (table[index] == -1) {
+                    depths[size] = depths[state] + 1;
+                    table[index] = size++;
+                }
+                state = table[index];
+            }
+            terminal[state] = true;
+        }
+
+        /* Breadth first, so that a state's failure target is finished before the state is.
+        Missing children borrow the move of the failure target, which collapses the failure
+        links into the table. */
+        int[] failures = new int[size];
+        int[] outputs = new int[size];
+        outputs[ROOT] = -1;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(ROOT);
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int failure = failures[state];
+
+            for (int column = 0; column < columns; column++) {
+                int index = state * columns + column;
+                int child = table[index];
+                int fallback = state == ROOT ? ROOT : table[failure * columns + column];
+
+                if (child == -1) {
+                    table[index] = fallback;
+                } else {
+                    failures[child] = fallback;
+                    outputs[child] = terminal[fallback] ? fallback : outputs[fallback];
+                    queue.add(child);
+                }
+            }
+        }
+
+        return new AhoCorasick(alphabet, Arrays.copyOf(table, size * columns),
+                Arrays.copyOf(depths, size), Arrays.copyOf(terminal, size), outputs);
+    }
+
+    @NotNull
+    private static char[] getAlphabet(Collection<String> words) {
+        Set<Character> letters = new TreeSet<>();
+        for (String word : words) {
+            for (char letter : word.toCharArray()) {
+                letters.add(letter);
+            }
+        }
+
+        char[] alphabet = new char[letters.size()];
+        int i = 0;
+        for (Character letter : letters) {
+            alphabet[i++] = letter;
+        }
+        return alphabet;
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        return longestMatch(input, 0) == input.length();
+    }
+
+    @Override
+    public int longestMatch(CharSequence input, int from) {
+        /* Anchored, so only moves along the trie count. A move that lands on a state shallower
+        than the number of letters read went through a failure link, and the match is over. */
+        int state = ROOT;
+        int lastAccept = terminal[ROOT] ? from : NO_MATCH;
+
+        for (int i = from; i < input.length(); i++) {
+            state = step(state, input.charAt(i));
+            if (depths[state] != i - from + 1) {
+                break;
+            }
+            if (terminal[state]) {
+                lastAccept = i + 1;
+            }
+        }
+
+        return lastAccept;
+    }
+
+    // The start and end offsets of the leftmost-longest word at or after from, or null
+    int[] find(CharSequence input, int from) {
+        int bestStart = NO_MATCH;
+        int bestEnd = NO_MATCH;
+        int state = ROOT;
+
+        if (terminal[ROOT]) {
+            bestStart = bestEnd = from;
+        }
+
+        for (int i = from; i < input.length(); i++) {
+            state = step(state, input.charAt(i));
+
+            // No word that is still being read can start at or before the best start
+            if (bestStart != NO_MATCH && i + 1 - depths[state] > bestStart) {
+                break;
+            }
+
+            int output = terminal[state] ? state : outputs[state];
+            for (; output != -1; output = outputs[output]) {
+                int start = i + 1 - depths[output];
+                if (bestStart == NO_MATCH || start < bestStart
+                        || (start == bestStart && i + 1 > bestEnd)) {
+                    bestStart = start;
+                    bestEnd = i + 1;
+                }
+            }
+        }
+
+        return bestStart == NO_MATCH ? null : new int[]{bestStart, bestEnd};
+    }
+
+    int step(int state, char consumed) {
+        int column;
+        if (consumed < ASCII) {
+            column = asciiColumns[consumed];
+        } else {
+            column = Arrays.binarySearch(alphabet, consumed);
+        }
+
+        return column < 0 ? ROOT : table[state * alphabet.length + column];
+    }
+
+    int getStateCount() {
+        return depths.length;
+    }
+}
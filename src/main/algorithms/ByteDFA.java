@@ -0,0 +1,239 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+class ByteDFA {
+    static final int ALPHABET_SIZE = 256;
+    static final int DEAD = -1;
+
+    // Row-major: the next state for (state, byte) is at state * ALPHABET_SIZE + (byte & 0xFF)
+    private final int[] table;
+    private final boolean[] accepting;
+    private final int start;
+
+    ByteDFA(int[] table, boolean[] accepting, int start) {
+        this.table = table;
+        this.accepting = accepting;
+        this.start = start;
+    }
+
+    static ByteDFA DFAtoByteDFA(DFA dfa) {
+        /* Every state of the original DFA keeps its place; the bytes of a multi-byte UTF-8
+        sequence pass through intermediate states. Intermediate states with the same outgoing
+        bytes and targets are shared, so a continuation byte range leading into one state is
+        only built once no matter how many lead bytes reach it. */
+        Map<Integer, Integer> indices = getDenseIndices(dfa);
+        Map<Integer, TreeMap<Character, Integer>> outgoing = getOutgoing(dfa, indices);
+
+        List<int[]> rows = new ArrayList<>();
+        for (int i = 0; i < indices.size(); i++) {
+            rows.add(makeDeadRow());
+        }
+
+        Map<List<Integer>, Integer> register = new HashMap<>();
+
+        for (int from = 0; from < indices.size(); from++) {
+            ByteTrie root = new ByteTrie();
+            TreeMap<Character, Integer> charMoves = outgoing.get(from);
+
+            for (Map.Entry<Character, Integer> entry : charMoves.entrySet()) {
+                char consumed = entry.getKey();
+                int to = entry.getValue();
+
+                if (Character.isHighSurrogate(consumed)) {
+                    // A surrogate pair spans two moves in the DFA but is one UTF-8 sequence
+                    for (Map.Entry<Character, Integer> low : outgoing.get(to).entrySet()) {
+                        if (Character.isLowSurrogate(low.getKey())) {
+                            int codePoint = Character.toCodePoint(consumed, low.getKey());
+                            root.insert(encode(codePoint), low.getValue());
+                        }
+                    }
+                } else if (!Character.isLowSurrogate(consumed)) {
+                    root.insert(encode(consumed), to);
+                }
+            }
+
+            int[] row = rows.get(from);
+            for (Map.Entry<Integer, ByteTrie> child : root.children.entrySet()) {
+                row[child.getKey()] = child.getValue().intern(rows, register);
+            }
+        }
+
+        boolean[] accepting = new boolean[rows.size()];
+        for (State finalState : dfa.getFinalStates()) {
+            Integer index = indices.get(finalState.getId());
+            if (index != null) {
+                accepting[index] = true;
+            }
+        }
+
+        int[] table = new int[rows.size() * ALPHABET_SIZE];
+        for (int i = 0; i < rows.size(); i++) {
+            System.arraycopy(rows.get(i), 0, table, i * ALPHABET_SIZE, ALPHABET_SIZE);
+        }
+
+        int start = indices.get(dfa.start.getId());
+        return new ByteDFA(table, accepting, start);
+    }
+
+    @NotNull
+    static Map<Integer, Integer> getDenseIndices(DFA dfa) {
+        // The phi state is left out, so that moves into it become dead entries of the table
+        State phi = dfa.getPhi();
+        Map<Integer, Integer> indices = new HashMap<>();
+
+        for (State state : dfa.getStates()) {
+            boolean isPhi = phi != null && state.getId() == phi.getId();
+            if (!isPhi) {
+                indices.put(state.getId(), indices.size());
+            }
+        }
+
+        return indices;
+    }
+
+    @NotNull
+    private static Map<Integer, TreeMap<Character, Integer>> getOutgoing(
+            DFA dfa, Map<Integer, Integer> indices) {
+        Map<Integer, TreeMap<Character, Integer>> outgoing = new HashMap<>();
+        for (int index : indices.values()) {
+            outgoing.put(index, new TreeMap<>());
+        }
+
+        for (Move move : dfa.getMoves()) {
+            Integer from = indices.get(move.getFrom().getId());
+            Integer to = indices.get(move.getTo().getId());
+
+            if (from != null && to != null) {
+                outgoing.get(from).put(move.getConsumed(), to);
+            }
+        }
+
+        return outgoing;
+    }
+
+    @NotNull
+    static int[] makeDeadRow() {
+        int[] row = new int[ALPHABET_SIZE];
+        Arrays.fill(row, DEAD);
+        return row;
+    }
+
+    static int[] encode(int codePoint) {
+        if (codePoint < 0x80) {
+            return new int[]{codePoint};
+        }
+        if (codePoint < 0x800) {
+            return new int[]{
+                    0xC0 | (codePoint >> 6),
+                    0x80 | (codePoint & 0x3F)
+            };
+        }
+        if (codePoint < 0x10000) {
+            return new int[]{
+                    0xE0 | (codePoint >> 12),
+                    0x80 | ((codePoint >> 6) & 0x3F),
+                    0x80 | (codePoint & 0x3F)
+            };
+        }
+        return new int[]{
+                0xF0 | (codePoint >> 18),
+                0x80 | ((codePoint >> 12) & 0x3F),
+                0x80 | ((codePoint >> 6) & 0x3F),
+                0x80 | (codePoint & 0x3F)
+        };
+    }
+
+    boolean matches(byte[] input) {
+        return matches(input, 0, input.length);
+    }
+
+    boolean matches(byte[] input, int offset, int length) {
+        int state = start;
+        int limit = offset + length;
+
+        for (int i = offset; i < limit; i++) {
+            state = table[state * ALPHABET_SIZE + (input[i] & 0xFF)];
+            if (state == DEAD) {
+                return false;
+            }
+        }
+
+        return accepting[state];
+    }
+
+    boolean matches(ByteBuffer input) {
+        // Absolute reads, so the position of the buffer is left untouched
+        int state = start;
+        int limit = input.limit();
+
+        for (int i = input.position(); i < limit; i++) {
+            state = table[state * ALPHABET_SIZE + (input.get(i) & 0xFF)];
+            if (state == DEAD) {
+                return false;
+            }
+        }
+
+        return accepting[state];
+    }
+
+    int step(int state, byte consumed) {
+        return table[state * ALPHABET_SIZE + (consumed & 0xFF)];
+    }
+
+    boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    int getStateCount() {
+        return accepting.length;
+    }
+}
+
+class ByteTrie {
+    final TreeMap<Integer, ByteTrie> children = new TreeMap<>();
+    private int target = ByteDFA.DEAD;
+
+    void insert(int[] bytes, int target) {
+        ByteTrie node = this;
+        for (int b : bytes) {
+            node = node.children.computeIfAbsent(b, k -> new ByteTrie());
+        }
+        node.target = target;
+    }
+
+    int intern(List<int[]> rows, Map<List<Integer>, Integer> register) {
+        // The last byte of a sequence leads straight into a state of the original DFA
+        if (children.isEmpty()) {
+            return target;
+        }
+
+        List<Integer> signature = new ArrayList<>();
+        for (Map.Entry<Integer, ByteTrie> child : children.entrySet()) {
+            signature.add(child.getKey());
+            signature.add(child.getValue().intern(rows, register));
+        }
+
+        Integer existing = register.get(signature);
+        if (existing != null) {
+            return existing;
+        }
+
+        int[] row = ByteDFA.makeDeadRow();
+        for (int i = 0; i < signature.size(); i += 2) {
+            row[signature.get(i)] = signature.get(i + 1);
+        }
+
+        int index = rows.size();
+        rows.add(row);
+        register.put(signature, index);
+        return index;
+    }
+}
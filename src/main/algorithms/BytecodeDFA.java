@@ -0,0 +1,420 @@
+package algorithms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class BytecodeDFA {
+    /* Writes a class per DFA whose matches and longestMatch methods are the DFA itself: every
+    state is a label, reading a letter is a switch over the letters it has moves on, and each
+    case jumps straight to the label of the next state. There is no table to load from, and the
+    JIT sees the state as the position in the code.
+
+    The class file is written by hand at version 49, which is still verified by type inference,
+    so no stack map frames are needed. It is defined as a hidden class where the JDK has them
+    (15 and later), found by reflection so that the source still builds at level 14, and as an
+    ordinary class with a unique name otherwise. HotSpot never JIT-compiles a method longer than
+    8000 bytes (DontCompileHugeMethods), and a matcher left in the interpreter is many times
+    slower than a table, so DFAs whose methods would be longer fall back to a CompiledDFA. */
+    static final int MAX_CODE_LENGTH = 8000;
+    private static final AtomicInteger classCounter = new AtomicInteger();
+
+    static Matcher DFAtoBytecodeDFA(DFA dfa) {
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(dfa);
+        String className = "algorithms/GeneratedDFA" + classCounter.getAndIncrement();
+        byte[] bytes = generate(compiled, className);
+        return bytes != null ? define(bytes) : compiled;
+    }
+
+    static byte[] generate(CompiledDFA dfa, String className) {
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.addClass(className);
+        int superClass = pool.addClass("java/lang/Object");
+        int matcherClass = pool.addClass("algorithms/Matcher");
+        int length = pool.addInterfaceMethod("java/lang/CharSequence", "length", "()I");
+        int charAt = pool.addInterfaceMethod("java/lang/CharSequence", "charAt", "(I)C");
+        int objectInit = pool.addMethod("java/lang/Object", "<init>", "()V");
+        int code = pool.addUtf8("Code");
+        int[] constructorNames = {pool.addUtf8("<init>"), pool.addUtf8("()V")};
+        int[] matchesNames = {pool.addUtf8("matches"), pool.addUtf8("(Ljava/lang/CharSequence;)Z")};
+        int[] longestMatchNames = {
+                pool.addUtf8("longestMatch"), pool.addUtf8("(Ljava/lang/CharSequence;I)I")
+        };
+
+        byte[] matches = new MethodWriter(dfa, length, charAt, false).write();
+        byte[] longestMatch = new MethodWriter(dfa, length, charAt, true).write();
+        if (matches == null || longestMatch == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            pool.write(out);
+
+            out.writeShort(Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(matcherClass);
+            out.writeShort(0);
+
+            out.writeShort(3);
+            byte[] constructor = {
+                    Opcodes.ALOAD_0,
+                    (byte) Opcodes.INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit,
+                    (byte) Opcodes.RETURN
+            };
+            writeMethod(out, code, constructorNames, 1, 1, constructor);
+            writeMethod(out, code, matchesNames, 2,
+                    MethodWriter.MATCHES_LOCALS, matches);
+            writeMethod(out, code, longestMatchNames, 2,
+                    MethodWriter.LONGEST_MATCH_LOCALS, longestMatch);
+
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, int code, int[] names, int maxStack,
+                                    int maxLocals, byte[] bytecode) throws IOException {
+        // names holds the constant pool indices of the method name and its descriptor
+        out.writeShort(Opcodes.ACC_PUBLIC);
+        out.writeShort(names[0]);
+        out.writeShort(names[1]);
+        out.writeShort(1);
+
+        out.writeShort(code);
+        out.writeInt(12 + bytecode.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(bytecode.length);
+        out.write(bytecode);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    private static Matcher define(byte[] bytes) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Class<?> generated;
+            try {
+                Class<?> optionClass =
+                        Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+                Object noOptions = Array.newInstance(optionClass, 0);
+                Method defineHiddenClass = MethodHandles.Lookup.class.getMethod(
+                        "defineHiddenClass", byte[].class, boolean.class, noOptions.getClass());
+                MethodHandles.Lookup hidden =
+                        (MethodHandles.Lookup) defineHiddenClass.invoke(lookup, bytes, true,
+                                noOptions);
+                generated = hidden.lookupClass();
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                generated = lookup.defineClass(bytes);
+            }
+            return (Matcher) generated.getDeclaredConstructor().newInstance();
+        } catch (IllegalAccessException | InstantiationException | NoSuchMethodException |
+                InvocationTargetException e) {
+            throw new IllegalStateException("Could not define a generated DFA class", e);
+        }
+    }
+}
+
+class MethodWriter {
+    /* Locals of matches: this, input, i, length, letter. Locals of longestMatch: this, input,
+    from, i, length, letter, lastAccept. */
+    static final int MATCHES_LOCALS = 5;
+    static final int LONGEST_MATCH_LOCALS = 7;
+
+    private final CompiledDFA dfa;
+    private final int length;
+    private final int charAt;
+    private final boolean isLongestMatch;
+    private final int input = 1;
+    private final int index;
+    private final int limit;
+    private final int letter;
+    private final int lastAccept = 6;
+
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private final List<int[]> fixups = new ArrayList<>();
+    private int[] stateOffsets;
+    private int deadOffset;
+
+    MethodWriter(CompiledDFA dfa, int length, int charAt, boolean isLongestMatch) {
+        this.dfa = dfa;
+        this.length = length;
+        this.charAt = charAt;
+        this.isLongestMatch = isLongestMatch;
+        index = isLongestMatch ? 3 : 2;
+        limit = isLongestMatch ? 4 : 3;
+        letter = isLongestMatch ? 5 : 4;
+    }
+
+    byte[] write() {
+        // Prologue: i = 0 (or from), length = input.length(), then jump to the start state
+        if (isLongestMatch) {
+            load(2);
+            store(index);
+            emit(Opcodes.ICONST_M1);
+            store(lastAccept);
+        } else {
+            emit(Opcodes.ICONST_0);
+            store(index);
+        }
+        emit(Opcodes.ALOAD_1);
+        invokeInterface(length, 1);
+        store(limit);
+        jumpWide(Opcodes.GOTO_W, dfa.getStart());
+
+        stateOffsets = new int[dfa.getStateCount()];
+        for (int state = 0; state < dfa.getStateCount(); state++) {
+            writeState(state);
+        }
+
+        // Reading a letter without a move ends the match
+        deadOffset = code.size();
+        if (isLongestMatch) {
+            load(lastAccept);
+            emit(Opcodes.IRETURN);
+        } else {
+            emit(Opcodes.ICONST_0);
+            emit(Opcodes.IRETURN);
+        }
+
+        if (code.size() > BytecodeDFA.MAX_CODE_LENGTH) {
+            return null;
+        }
+        return patch(code.toByteArray());
+    }
+
+    private void writeState(int state) {
+        stateOffsets[state] = code.size();
+        boolean accepting = dfa.isAccepting(state);
+
+        if (isLongestMatch && accepting) {
+            load(index);
+            store(lastAccept);
+        }
+
+        // At the end of the input, answer for this state; otherwise skip over the return
+        load(index);
+        load(limit);
+        emit(Opcodes.IF_ICMPLT);
+        emitShort(isLongestMatch ? 6 : 5);
+        if (isLongestMatch) {
+            load(lastAccept);
+        } else {
+            emit(accepting ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+        }
+        emit(Opcodes.IRETURN);
+
+        // letter = input.charAt(i++)
+        emit(Opcodes.ALOAD_1);
+        load(index);
+        invokeInterface(charAt, 2);
+        store(letter);
+        emit(Opcodes.IINC);
+        emit(index);
+        emit(1);
+        load(letter);
+
+        TreeMap<Integer, Integer> cases = new TreeMap<>();
+        for (char consumed : dfa.getAlphabet()) {
+            int to = dfa.step(state, consumed);
+            if (to != CompiledDFA.DEAD) {
+                cases.put((int) consumed, to);
+            }
+        }
+        writeSwitch(cases);
+    }
+
+    private void writeSwitch(TreeMap<Integer, Integer> cases) {
+        // The same choice javac makes between a table and a sorted list of keys
+        int switchOffset = code.size();
+        boolean useTable = false;
+        int low = 0;
+        int high = 0;
+
+        if (!cases.isEmpty()) {
+            low = cases.firstKey();
+            high = cases.lastKey();
+            long tableCost = 4 + ((long) high - low + 1) + 3L * 3;
+            long lookupCost = 3 + 2L * cases.size() + 3L * cases.size();
+            useTable = tableCost <= lookupCost;
+        }
+
+        emit(useTable ? Opcodes.TABLESWITCH : Opcodes.LOOKUPSWITCH);
+        while (code.size() % 4 != 0) {
+            emit(0);
+        }
+        addFixup(switchOffset, CompiledDFA.DEAD);
+
+        if (useTable) {
+            emitInt(low);
+            emitInt(high);
+            for (int key = low; key <= high; key++) {
+                addFixup(switchOffset, cases.getOrDefault(key, CompiledDFA.DEAD));
+            }
+        } else {
+            emitInt(cases.size());
+            for (Map.Entry<Integer, Integer> entry : cases.entrySet()) {
+                emitInt(entry.getKey());
+                addFixup(switchOffset, entry.getValue());
+            }
+        }
+    }
+
+    private void addFixup(int instruction, int target) {
+        // Four bytes for the offset from instruction to the label of target, filled in later
+        fixups.add(new int[]{code.size(), instruction, target});
+        emitInt(0);
+    }
+
+    private byte[] patch(byte[] bytes) {
+        for (int[] fixup : fixups) {
+            int position = fixup[0];
+            int target = fixup[2] == CompiledDFA.DEAD ? deadOffset : stateOffsets[fixup[2]];
+            int offset = target - fixup[1];
+            bytes[position] = (byte) (offset >> 24);
+            bytes[position + 1] = (byte) (offset >> 16);
+            bytes[position + 2] = (byte) (offset >> 8);
+            bytes[position + 3] = (byte) offset;
+        }
+        return bytes;
+    }
+
+    private void jumpWide(int opcode, int state) {
+        int instruction = code.size();
+        emit(opcode);
+        addFixup(instruction, state);
+    }
+
+    private void invokeInterface(int method, int argumentSlots) {
+        emit(Opcodes.INVOKEINTERFACE);
+        emitShort(method);
+        emit(argumentSlots);
+        emit(0);
+    }
+
+    private void load(int local) {
+        emit(Opcodes.ILOAD);
+        emit(local);
+    }
+
+    private void store(int local) {
+        emit(Opcodes.ISTORE);
+        emit(local);
+    }
+
+    private void emit(int b) {
+        code.write(b);
+    }
+
+    private void emitShort(int value) {
+        code.write(value >> 8);
+        code.write(value);
+    }
+
+    private void emitInt(int value) {
+        emitShort(value >> 16);
+        emitShort(value);
+    }
+}
+
+class ConstantPool {
+    // Entries are interned, so asking twice for the same constant gives the same index
+    private final Map<List<Object>, Integer> indices = new HashMap<>();
+    private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(entries);
+    private int count = 1;
+
+    int addUtf8(String value) {
+        return add(Arrays.asList(1, value), () -> out.writeUTF(value));
+    }
+
+    int addClass(String name) {
+        int nameIndex = addUtf8(name);
+        return add(Arrays.asList(7, name), () -> out.writeShort(nameIndex));
+    }
+
+    int addMethod(String owner, String name, String descriptor) {
+        return addMember(10, owner, name, descriptor);
+    }
+
+    int addInterfaceMethod(String owner, String name, String descriptor) {
+        return addMember(11, owner, name, descriptor);
+    }
+
+    private int addMember(int tag, String owner, String name, String descriptor) {
+        int ownerIndex = addClass(owner);
+        int nameIndex = addUtf8(name);
+        int descriptorIndex = addUtf8(descriptor);
+        int nameAndType = add(Arrays.asList(12, name, descriptor), () -> {
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return add(Arrays.asList(tag, owner, name, descriptor), () -> {
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int add(List<Object> key, EntryWriter writer) {
+        Integer existing = indices.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            out.writeByte((Integer) key.get(0));
+            writer.write();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        indices.put(key, count);
+        return count++;
+    }
+
+    void write(DataOutputStream classOut) throws IOException {
+        classOut.writeShort(count);
+        classOut.write(entries.toByteArray());
+    }
+
+    private interface EntryWriter {
+        void write() throws IOException;
+    }
+}
+
+class Opcodes {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    static final int ICONST_M1 = 0x02;
+    static final int ICONST_0 = 0x03;
+    static final int ICONST_1 = 0x04;
+    static final int ILOAD = 0x15;
+    static final int ALOAD_0 = 0x2A;
+    static final int ALOAD_1 = 0x2B;
+    static final int ISTORE = 0x36;
+    static final int IINC = 0x84;
+    static final int IF_ICMPLT = 0xA1;
+    static final int TABLESWITCH = 0xAA;
+    static final int LOOKUPSWITCH = 0xAB;
+    static final int IRETURN = 0xAC;
+    static final int RETURN = 0xB1;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKEINTERFACE = 0xB9;
+    static final int GOTO_W = 0xC8;
+}
@@ -0,0 +1,231 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+
+class CompiledDFA implements Matcher {
+    static final int DEAD = -1;
+    private static final int ASCII = 128;
+
+    // Letters of the alphabet in order; a letter's position is its column in the table
+    private final char[] alphabet;
+    private final int[] asciiColumns;
+
+    // Row-major: the next state for (state, letter) is at state * alphabet.length + column
+    private final int[] table;
+    private final boolean[] accepting;
+    private final int start;
+
+    /* For each accelerated state, the ASCII letters that lead straight back into it, as a
+    bitmask over 0-63 and one over 64-127. A state is accelerated when it loops on most of the
+    alphabet, like the body of a comment or a string; runs of its loop letters are skipped four
+    characters at a time, with the mask tests combined into one branch, instead of a table
+    lookup each. A state that loops on only a few letters rarely sees long runs of them, and
+    checking the masks before the table would only slow it down. */
+    private final long[] lowLoops;
+    private final long[] highLoops;
+
+    CompiledDFA(char[] alphabet, int[] table, boolean[] accepting, int start) {
+        this.alphabet = alphabet;
+        this.table = table;
+        this.accepting = accepting;
+        this.start = start;
+
+        asciiColumns = new int[ASCII];
+        Arrays.fill(asciiColumns, DEAD);
+        for (int column = 0; column < alphabet.length && alphabet[column] < ASCII; column++) {
+            asciiColumns[alphabet[column]] = column;
+        }
+
+        lowLoops = new long[accepting.length];
+        highLoops = new long[accepting.length];
+        for (int state = 0; state < accepting.length; state++) {
+            int loopCount = 0;
+            for (int column = 0; column < alphabet.length; column++) {
+                if (table[state * alphabet.length + column] != state) {
+                    continue;
+                }
+
+                loopCount++;
+                char letter = alphabet[column];
+                if (letter < 64) {
+                    lowLoops[state] |= 1L << letter;
+                } else if (letter < ASCII) {
+                    highLoops[state] |= 1L << letter;
+                }
+            }
+
+            if (loopCount * 2 <= alphabet.length) {
+                lowLoops[state] = 0;
+                highLoops[state] = 0;
+            }
+        }
+    }
+
+    static CompiledDFA DFAtoCompiledDFA(DFA dfa) {
+        // The phi state is left out, so that moves into it become dead entries of the table
+        Map<Integer, Integer> indices = ByteDFA.getDenseIndices(dfa);
+        char[] alphabet = getAlphabet(dfa);
+
+        int[] table = new int[indices.size() * alphabet.length];
+        Arrays.fill(table, DEAD);
+
+        for (Move move : dfa.getMoves()) {
+            Integer from = indices.get(move.getFrom().getId());
+            Integer to = indices.get(move.getTo().getId());
+
+            if (from != null && to != null) {
+                int column = Arrays.binarySearch(alphabet, move.getConsumed());
+                table[from * alphabet.length + column] = to;
+            }
+        }
+
+        boolean[] accepting = new boolean[indices.size()];
+        for (State finalState : dfa.getFinalStates()) {
+            Integer index = indices.get(finalState.getId());
+            if (index != null) {
+                accepting[index] = true;
+            }
+        }
+
+        int start = indices.get(dfa.start.getId());
+        return new CompiledDFA(alphabet, table, accepting, start);
+    }
+
+    @NotNull
+    private static char[] getAlphabet(DFA dfa) {
+        char[] alphabet = new char[dfa.alphabet.size()];
+        int i = 0;
+        for (Character letter : dfa.alphabet) {
+            alphabet[i++] = letter;
+        }
+        return alphabet;
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        int state = start;
+        int length = input.length();
+        int i = 0;
+
+        while (i < length) {
+            if (isAccelerated(state)) {
+                i = skipLoop(state, input, i, length);
+                if (i == length) {
+                    break;
+                }
+            }
+
+            state = step(state, input.charAt(i++));
+            if (state == DEAD) {
+                return false;
+            }
+        }
+
+        return accepting[state];
+    }
+
+    @Override
+    public int longestMatch(CharSequence input, int from) {
+        int state = start;
+        int length = input.length();
+        int lastAccept = accepting[state] ? from : NO_MATCH;
+        int i = from;
+
+        while (i < length) {
+            if (isAccelerated(state)) {
+                i = skipLoop(state, input, i, length);
+                if (accepting[state]) {
+                    lastAccept = i;
+                }
+                if (i == length) {
+                    break;
+                }
+            }
+
+            state = step(state, input.charAt(i++));
+            if (state == DEAD) {
+                break;
+            }
+            if (accepting[state]) {
+                lastAccept = i;
+            }
+        }
+
+        return lastAccept;
+    }
+
+    int skipLoop(int state, CharSequence input, int from, int to) {
+        // Shifts only use the low six bits, so letter picks the right bit of either mask
+        long lowLoop = lowLoops[state];
+        long highLoop = highLoops[state];
+        int i = from;
+
+        while (i + 4 <= to) {
+            char first = input.charAt(i);
+            char second = input.charAt(i + 1);
+            char third = input.charAt(i + 2);
+            char fourth = input.charAt(i + 3);
+            if ((first | second | third | fourth) >= ASCII) {
+                break;
+            }
+
+            long loops = (first < 64 ? lowLoop : highLoop) >>> first
+                    & (second < 64 ? lowLoop : highLoop) >>> second
+                    & (third < 64 ? lowLoop : highLoop) >>> third
+                    & (fourth < 64 ? lowLoop : highLoop) >>> fourth;
+            if ((loops & 1) == 0) {
+                break;
+            }
+            i += 4;
+        }
+
+        while (i < to) {
+            char letter = input.charAt(i);
+            if (letter >= ASCII) {
+                break;
+            }
+
+            long loop = letter < 64 ? lowLoop : highLoop;
+            if ((loop >>> letter & 1) == 0) {
+                break;
+            }
+            i++;
+        }
+
+        return i;
+    }
+
+    int step(int state, char consumed) {
+        int column;
+        if (consumed < ASCII) {
+            column = asciiColumns[consumed];
+        } else {
+            column = Arrays.binarySearch(alphabet, consumed);
+        }
+
+        return column < 0 ? DEAD : table[state * alphabet.length + column];
+    }
+
+    char[] getAlphabet() {
+        return alphabet;
+    }
+
+    boolean isAccelerated(int state) {
+        return (lowLoops[state] | highLoops[state]) != 0;
+    }
+
+    boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    int getStateCount() {
+        return accepting.length;
+    }
+}
@@ -0,0 +1,176 @@
+package algorithms;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+class CorpusScanner {
+    /* Scans every file under a directory for one pattern. The pattern is compiled once into an
+    unanchored CompiledDFA, which is never written to and so is shared by all threads. Each
+    thread of the pool keeps its own worker, holding a StreamMatcher over that DFA and a buffer,
+    and reuses it for every file it is handed. Files are split in halves as fork-join tasks, so
+    idle threads steal the other halves of busy ones. */
+    private final CompiledDFA unanchored;
+    private final ThreadLocal<CorpusWorker> workers;
+
+    CorpusScanner(CompiledDFA unanchored) {
+        this.unanchored = unanchored;
+        workers = ThreadLocal.withInitial(() -> new CorpusWorker(this.unanchored));
+    }
+
+    static CorpusScanner regexToCorpusScanner(String regex) {
+        DFA minDfa = StreamMatcher.getUnanchoredDFA(regex);
+        return new CorpusScanner(CompiledDFA.DFAtoCompiledDFA(minDfa));
+    }
+
+    CorpusResult scan(Path root) throws IOException {
+        return scan(root, ForkJoinPool.commonPool());
+    }
+
+    CorpusResult scan(Path root, ForkJoinPool pool) throws IOException {
+        // A directory that cannot be listed is a failure like a file that cannot be read
+        List<Path> files = new ArrayList<>();
+        Collection<Path> failures = new ConcurrentLinkedQueue<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                failures.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException e) {
+                if (e != null) {
+                    failures.add(directory);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Map<Path, List<Long>> matches = new ConcurrentHashMap<>();
+        pool.invoke(new ScanTask(files, 0, files.size(), matches, failures));
+        return new CorpusResult(files.size(), matches, failures);
+    }
+
+    private class ScanTask extends RecursiveAction {
+        private final List<Path> files;
+        private final int from;
+        private final int to;
+        private final Map<Path, List<Long>> matches;
+        private final Collection<Path> failures;
+
+        ScanTask(List<Path> files, int from, int to, Map<Path, List<Long>> matches,
+                 Collection<Path> failures) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.matches = matches;
+            this.failures = failures;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ScanTask(files, from, middle, matches, failures),
+                        new ScanTask(files, middle, to, matches, failures));
+                return;
+            }
+
+            for (int i = from; i < to; i++) {
+                Path file = files.get(i);
+                try {
+                    List<Long> ends = workers.get().scan(file);
+                    if (!ends.isEmpty()) {
+                        matches.put(file, ends);
+                    }
+                } catch (IOException | UncheckedIOException e) {
+                    failures.add(file);
+                }
+            }
+        }
+    }
+}
+
+class CorpusWorker implements MatchListener {
+    // Chars are read in blocks of this size; a match may span blocks
+    static final int BUFFER = 1 << 16;
+
+    private final StreamMatcher matcher;
+    private final char[] buffer = new char[BUFFER];
+    private List<Long> ends;
+
+    CorpusWorker(CompiledDFA unanchored) {
+        matcher = StreamMatcher.forChars(unanchored, this);
+    }
+
+    List<Long> scan(Path file) throws IOException {
+        // Malformed UTF-8 is replaced rather than thrown, so binary files are scanned too
+        ends = new ArrayList<>();
+        matcher.finish();
+
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file),
+                StandardCharsets.UTF_8)) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                matcher.feed(buffer, 0, read);
+            }
+        }
+        return ends;
+    }
+
+    @Override
+    public void onMatch(long end) {
+        ends.add(end);
+    }
+}
+
+class CorpusResult {
+    /* Files are in path order, whichever thread scanned them; only files with matches are kept.
+    Failures are the files that could not be read and the directories that could not be listed. */
+    private final int fileCount;
+    private final TreeMap<Path, List<Long>> matches;
+    private final TreeSet<Path> failures;
+
+    CorpusResult(int fileCount, Map<Path, List<Long>> matches, Collection<Path> failures) {
+        this.fileCount = fileCount;
+        this.matches = new TreeMap<>(matches);
+        this.failures = new TreeSet<>(failures);
+    }
+
+    int getFileCount() {
+        return fileCount;
+    }
+
+    TreeMap<Path, List<Long>> getMatches() {
+        return matches;
+    }
+
+    long getMatchCount() {
+        return matches.values().stream().mapToLong(List::size).sum();
+    }
+
+    TreeSet<Path> getFailures() {
+        return failures;
+    }
+}
@@ -57,8 +57,26 @@ class DFA extends FSA {
     }
 
     static DFA NFAtoDFA(NFA nfa) {
+        return NFAtoDFA(nfa, new FSAStatistics());
+    }
+
+    static DFA NFAtoDFA(NFA nfa, FSAStatistics statistics) {
+        return NFAtoDFA(nfa, statistics, true);
+    }
+
+    static DFA NFAtoDFAParallel(NFA nfa) {
+        return new ParallelSubsetConstruction(nfa).build();
+    }
+
+    static DFA NFAtoPartialDFA(NFA nfa) {
+        // Leaves out the phi state, so that missing moves stay missing
+        return NFAtoDFA(nfa, new FSAStatistics(), false);
+    }
+
+    private static DFA NFAtoDFA(NFA nfa, FSAStatistics statistics, boolean complete) {
         int index = 0;
         DFAState dfaStart = epsilonClosure(nfa.start, nfa.moves, index++);
+        statistics.recordEpsilonClosure();
         DFAStates dfaStates = new DFAStates(Collections.singleton(dfaStart));
         DFAMoves dfaMoves = new DFAMoves();
         Stack<DFAState> stack = new Stack<>(Collections.singleton(dfaStart));
@@ -69,6 +87,7 @@ class DFA extends FSA {
             for (Character consumed : nfa.alphabet) {
                 States reachableStates = getReachableStates(from, nfa.moves, consumed);
                 DFAState to = epsilonClosure(reachableStates, nfa.moves, index);
+                statistics.recordEpsilonClosure();
 
                 if (!to.isEmpty()) {
                     if (to.isNewState(dfaStates)) {
@@ -85,12 +104,35 @@ class DFA extends FSA {
         }
 
         DFAStates dfaFinalStates = getDFAFinalStates(dfaStates, nfa.finalStates);
-        State phi = new State(index);
+        State phi = complete ? new State(index) : null;
 
         // DFA states already consume every letter of the alphabet
         return new DFA(nfa.alphabet, dfaStates, dfaStart, dfaFinalStates, dfaMoves, phi, false);
     }
 
+    static DFA DFAtoPartialMinDFA(DFA dfa) {
+        return new PartialDFAMinimizer(dfa).minimize();
+    }
+
+    static DFA wordsToMinDFA(Collection<String> sortedWords) {
+        /* The result is partial: there is no phi state, and a missing move means the word is
+        rejected. Duplicate words are skipped, but the words must otherwise be in order. */
+        AcyclicDFABuilder builder = new AcyclicDFABuilder();
+        for (String word : sortedWords) {
+            builder.add(word);
+        }
+        return builder.build();
+    }
+
+    static DFA regexToMinDFA(String regex) {
+        return DFAtoMinDFA(NFAtoDFA(NFA.regexToNFA(regex)));
+    }
+
+    static DFA reverse(FSA fsa) {
+        NFA reversed = NFA.reverse(fsa);
+        return DFAtoMinDFA(NFAtoDFA(reversed));
+    }
+
     static DFAState epsilonClosure(State state, Moves moves, int index) {
         States closure = epsilonClosure(state, moves);
         return new DFAState(index, closure);
@@ -161,12 +203,21 @@ class DFA extends FSA {
     }
 
     static DFA DFAtoMinDFA(DFA dfa) {
-        Partition partition = dfa.getPartition();
+        return DFAtoMinDFA(dfa, new FSAStatistics());
+    }
+
+    static DFA DFAtoMinDFA(DFA dfa, FSAStatistics statistics) {
+        Partition partition = dfa.getPartition(statistics);
         return dfa.createDFAFromPartition(partition);
     }
 
     @NotNull
     Partition getPartition() {
+        return getPartition(new FSAStatistics());
+    }
+
+    @NotNull
+    Partition getPartition(FSAStatistics statistics) {
         Partition partition = this.initializePartition();
         Partition previous;
 
@@ -192,6 +243,7 @@ class DFA extends FSA {
                     }
                 }
             }
+            statistics.recordMinimizationRound(partition);
             splittingOccurs = isStillSplitting(partition, previous);
         }
 
@@ -316,6 +368,8 @@ class DFAMoves extends TreeSet<DFAMove> {
 class DFAState implements Comparable<DFAState> {
     private final States states;
     private int id;
+    // The member ids, made once and shared by every State this is converted to
+    private int[] members;
 
     DFAState(int id, States states) {
         this.id = id;
@@ -332,7 +386,10 @@ class DFAState implements Comparable<DFAState> {
 
     @NotNull
     State convertToState() {
-        return new State(id, states);
+        if (members == null) {
+            members = states.stream().mapToInt(State::getId).toArray();
+        }
+        return new State(id, members);
     }
 
     boolean isEmpty() {
@@ -0,0 +1,719 @@
+package algorithms;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+class DifferentialTester {
+    /* Cross-checks every engine against the simulation of the NFA from NFA.regexToNFA, on random
+    regexes over a small alphabet and random inputs that sometimes hold a letter outside it.
+    java.util.regex is checked the same way, through a translation that spells out this
+    package's precedence, so a mistake shared by the parser and every engine still shows up.
+    Acceptors decide whether a whole input matches; longest matchers give the end of the
+    longest match starting at every offset; end finders give every offset at which some
+    non-empty match ends. An engine that does not apply to a regex, such as a lexer on one that
+    matches the empty string, is built as null and is neither checked nor timed on it. Each
+    engine is timed per regex, building included,
+    and a regex that takes it far longer than its median is reported as a performance cliff.
+    The first WARMUP regexes are checked but not timed, since they also load and compile the
+    engines' classes. */
+    static final int WARMUP = 20;
+    static final int CLIFF_FACTOR = 50;
+    static final long MIN_CLIFF_NANOS = 1_000_000;
+    static final int RETRIES = 2;
+    private static final char OUTSIDE = 'z';
+
+    // Compiling a generated scanner takes tens of milliseconds, so only some regexes get one
+    static final int SCANNER_EVERY = 10;
+
+    // Streams are fed in chunks this long, so that matches cross from one chunk to the next
+    private static final int CHUNK = 3;
+
+    private final Random random;
+    private final char[] letters;
+    private final int maxDepth;
+    private final int inputsPerRegex;
+    private final int maxInputLength;
+    private final Map<String, Function<String, Acceptor>> acceptors = new LinkedHashMap<>();
+    private final Map<String, Function<String, LongestMatcher>> longestMatchers =
+            new LinkedHashMap<>();
+    private final Map<String, Function<String, EndFinder>> endFinders = new LinkedHashMap<>();
+
+    DifferentialTester(long seed, String letters, int maxDepth, int inputsPerRegex,
+                       int maxInputLength) {
+        this.random = new Random(seed);
+        this.letters = letters.toCharArray();
+        this.maxDepth = maxDepth;
+        this.inputsPerRegex = inputsPerRegex;
+        this.maxInputLength = maxInputLength;
+        addDefaultEngines();
+    }
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : System.nanoTime();
+        int regexCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        DifferentialTester tester = new DifferentialTester(seed, "abc", 4, 20, 10);
+        DifferentialReport report = tester.run(regexCount);
+        System.out.println("Seed " + seed);
+        System.out.print(report);
+        if (!report.getMismatches().isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private void addDefaultEngines() {
+        FragmentCache cache = new FragmentCache(1024);
+
+        addAcceptor("java.util.regex", regex -> {
+            Pattern pattern = Pattern.compile(toJavaRegex(regex));
+            return forEach(input -> pattern.matcher(input).matches());
+        });
+        addAcceptor("regexToNFAParallel", regex -> accepts(NFA.regexToNFAParallel(regex)));
+        addAcceptor("FragmentCache", regex -> accepts(NFA.regexToNFA(regex, cache)));
+        addAcceptor("removeEpsilons", regex ->
+                accepts(NFA.regexToNFA(regex).removeEpsilons()));
+        addAcceptor("reduceByBisimulation", regex ->
+                accepts(NFA.regexToNFA(regex).removeEpsilons().reduceByBisimulation()));
+        addAcceptor("NFAtoDFA", regex -> matches(CompiledDFA.DFAtoCompiledDFA(
+                DFA.NFAtoDFA(NFA.regexToNFA(regex)))));
+        addAcceptor("NFAtoDFAParallel", regex -> matches(CompiledDFA.DFAtoCompiledDFA(
+                DFA.NFAtoDFAParallel(NFA.regexToNFA(regex)))));
+        addAcceptor("DFAtoMinDFA", regex -> matches(CompiledDFA.DFAtoCompiledDFA(
+                DFA.regexToMinDFA(regex))));
+        addAcceptor("DFAtoPartialMinDFA", regex -> matches(CompiledDFA.DFAtoCompiledDFA(
+                DFA.DFAtoPartialMinDFA(DFA.NFAtoPartialDFA(NFA.regexToNFA(regex))))));
+        addAcceptor("BytecodeDFA", regex -> matches(BytecodeDFA.DFAtoBytecodeDFA(
+                DFA.regexToMinDFA(regex))));
+        addAcceptor("Matcher.compile", regex -> matches(Matcher.compile(regex)));
+        addAcceptor("ByteDFA", regex -> {
+            ByteDFA dfa = ByteDFA.DFAtoByteDFA(DFA.regexToMinDFA(regex));
+            return forEach(input -> dfa.matches(input.getBytes(StandardCharsets.UTF_8)));
+        });
+        addAcceptor("TDFA", regex -> {
+            TDFA tdfa = TDFA.regexToTDFA(regex);
+            return forEach(input -> tdfa.match(input) != null);
+        });
+        addAcceptor("MultiStreamDFA", regex -> {
+            MultiStreamDFA dfa = MultiStreamDFA.DFAtoMultiStreamDFA(DFA.regexToMinDFA(regex));
+            return dfa::matchAll;
+        });
+        addAcceptor("AhoCorasick", regex -> {
+            AhoCorasick words = toAhoCorasick(regex);
+            return words != null ? matches(words) : null;
+        });
+        addAcceptor("Lexer", regex -> {
+            Lexer lexer = toLexer(regex);
+            // The whole input matches if it is the longest token at its start
+            return lexer == null ? null : forEach(input -> {
+                int[] scanned = input.isEmpty() ? null : lexer.scan(input, 0);
+                return scanned != null && scanned[0] == 0 && scanned[1] == input.length();
+            });
+        });
+        addAcceptor("ScannerGenerator", regex -> {
+            // Chosen by the regex rather than by a count, so that a timing retry chooses the same
+            if (Math.floorMod(regex.hashCode(), SCANNER_EVERY) != 0) {
+                return null;
+            }
+            Class<?> scanner = SourceCompiler.compile("Scanner",
+                    ScannerGenerator.generate(DFA.regexToMinDFA(regex), "Scanner"));
+            Method matches = SourceCompiler.getMethod(scanner, "matches", CharSequence.class);
+            return forEach(input -> (Boolean) SourceCompiler.invoke(matches, input));
+        });
+
+        addLongestMatcher("java.util.regex", regex -> {
+            Pattern pattern = Pattern.compile(toJavaRegex(regex));
+            return input -> longestMatches(input, (from, to) ->
+                    pattern.matcher(input).region(from, to).matches());
+        });
+        addLongestMatcher("CompiledDFA", regex ->
+                longestMatches(CompiledDFA.DFAtoCompiledDFA(DFA.regexToMinDFA(regex))));
+        addLongestMatcher("BytecodeDFA", regex ->
+                longestMatches(BytecodeDFA.DFAtoBytecodeDFA(DFA.regexToMinDFA(regex))));
+        addLongestMatcher("Matcher.compile", regex -> longestMatches(Matcher.compile(regex)));
+        addLongestMatcher("AhoCorasick", regex -> {
+            AhoCorasick words = toAhoCorasick(regex);
+            return words != null ? longestMatches(words) : null;
+        });
+        addLongestMatcher("Lexer", regex -> {
+            Lexer lexer = toLexer(regex);
+            return lexer == null ? null : input -> {
+                int[] ends = new int[input.length() + 1];
+                for (int from = 0; from <= input.length(); from++) {
+                    int[] scanned = from < input.length() ? lexer.scan(input, from) : null;
+                    boolean isToken = scanned != null && scanned[0] != Lexer.ERROR;
+                    ends[from] = isToken ? scanned[1] : Matcher.NO_MATCH;
+                }
+                return ends;
+            };
+        });
+        addLongestMatcher("Searcher", regex -> {
+            Searcher searcher = Searcher.regexToSearcher(regex);
+            return input -> {
+                int[] ends = new int[input.length() + 1];
+                for (int from = 0; from <= input.length(); from++) {
+                    int[] match = searcher.find(input, from);
+                    boolean startsHere = match != null && match[0] == from;
+                    ends[from] = startsHere ? match[1] : Matcher.NO_MATCH;
+                }
+                return ends;
+            };
+        });
+
+        addEndFinder("StreamMatcher chars", regex -> {
+            if (NFA.regexToNFA(regex).accepts("")) {
+                return null;
+            }
+            boolean[][] ends = new boolean[1][];
+            StreamMatcher stream = StreamMatcher.forChars(regex, end -> ends[0][(int) end] = true);
+            return input -> {
+                ends[0] = new boolean[input.length() + 1];
+                char[] chars = input.toCharArray();
+                for (int from = 0; from < chars.length; from += CHUNK) {
+                    stream.feed(chars, from, Math.min(CHUNK, chars.length - from));
+                }
+                stream.finish();
+                return ends[0];
+            };
+        });
+        addEndFinder("StreamMatcher bytes", regex -> {
+            if (NFA.regexToNFA(regex).accepts("")) {
+                return null;
+            }
+            // The letters drawn are all ASCII, so byte offsets are char offsets
+            boolean[][] ends = new boolean[1][];
+            StreamMatcher stream = StreamMatcher.forBytes(regex, end -> ends[0][(int) end] = true);
+            return input -> {
+                ends[0] = new boolean[input.length() + 1];
+                byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+                for (int from = 0; from < bytes.length; from += CHUNK) {
+                    stream.feed(ByteBuffer.wrap(bytes, from, Math.min(CHUNK, bytes.length - from)));
+                }
+                stream.finish();
+                return ends[0];
+            };
+        });
+    }
+
+    void addAcceptor(String name, Function<String, Acceptor> factory) {
+        acceptors.put(name, factory);
+    }
+
+    void addLongestMatcher(String name, Function<String, LongestMatcher> factory) {
+        longestMatchers.put(name, factory);
+    }
+
+    void addEndFinder(String name, Function<String, EndFinder> factory) {
+        endFinders.put(name, factory);
+    }
+
+    DifferentialReport run(int regexCount) {
+        DifferentialReport report = new DifferentialReport();
+        for (int i = 0; i < regexCount; i++) {
+            check(nextRegex(), i >= WARMUP, report);
+        }
+        return report;
+    }
+
+    void check(String regex, boolean isTimed, DifferentialReport report) {
+        String[] inputs = nextInputs();
+
+        NFA nfa = NFA.regexToNFA(regex);
+        boolean[] expected = time("NFA.accepts", regex, isTimed, report,
+                () -> accepts(NFA.regexToNFA(regex)).matchAll(inputs));
+        int[][] expectedLongest = new int[inputs.length][];
+        boolean[][] expectedEnds = new boolean[inputs.length][];
+        for (int i = 0; i < inputs.length; i++) {
+            boolean[][] ranges = getMatchingRanges(nfa, inputs[i]);
+            expectedLongest[i] = longestMatches(inputs[i], (from, to) -> ranges[from][to]);
+            expectedEnds[i] = new boolean[inputs[i].length() + 1];
+            for (int to = 1; to <= inputs[i].length(); to++) {
+                for (int from = 0; from < to; from++) {
+                    expectedEnds[i][to] |= ranges[from][to];
+                }
+            }
+        }
+
+        for (Map.Entry<String, Function<String, Acceptor>> entry : acceptors.entrySet()) {
+            String name = entry.getKey();
+            boolean[] actual;
+            try {
+                actual = time(name, regex, isTimed, report, () -> {
+                    Acceptor acceptor = entry.getValue().apply(regex);
+                    return acceptor != null ? acceptor.matchAll(inputs) : null;
+                });
+            } catch (RuntimeException | LinkageError e) {
+                report.recordFailure(name, regex, e);
+                continue;
+            }
+
+            for (int i = 0; actual != null && i < inputs.length; i++) {
+                if (actual[i] != expected[i]) {
+                    report.recordMismatch(name, regex, inputs[i], Boolean.toString(expected[i]),
+                            Boolean.toString(actual[i]));
+                }
+            }
+        }
+
+        for (Map.Entry<String, Function<String, LongestMatcher>> entry :
+                longestMatchers.entrySet()) {
+            String name = "longest " + entry.getKey();
+            int[][] actual;
+            try {
+                actual = time(name, regex, isTimed, report, () -> {
+                    LongestMatcher matcher = entry.getValue().apply(regex);
+                    if (matcher == null) {
+                        return null;
+                    }
+                    int[][] ends = new int[inputs.length][];
+                    for (int i = 0; i < inputs.length; i++) {
+                        ends[i] = matcher.longestMatches(inputs[i]);
+                    }
+                    return ends;
+                });
+            } catch (RuntimeException | LinkageError e) {
+                report.recordFailure(name, regex, e);
+                continue;
+            }
+
+            for (int i = 0; actual != null && i < inputs.length; i++) {
+                if (!Arrays.equals(actual[i], expectedLongest[i])) {
+                    report.recordMismatch(name, regex, inputs[i],
+                            Arrays.toString(expectedLongest[i]), Arrays.toString(actual[i]));
+                }
+            }
+        }
+
+        for (Map.Entry<String, Function<String, EndFinder>> entry : endFinders.entrySet()) {
+            String name = "ends " + entry.getKey();
+            boolean[][] actual;
+            try {
+                actual = time(name, regex, isTimed, report, () -> {
+                    EndFinder finder = entry.getValue().apply(regex);
+                    if (finder == null) {
+                        return null;
+                    }
+                    boolean[][] ends = new boolean[inputs.length][];
+                    for (int i = 0; i < inputs.length; i++) {
+                        ends[i] = finder.findEnds(inputs[i]);
+                    }
+                    return ends;
+                });
+            } catch (RuntimeException | LinkageError e) {
+                report.recordFailure(name, regex, e);
+                continue;
+            }
+
+            for (int i = 0; actual != null && i < inputs.length; i++) {
+                if (!Arrays.equals(actual[i], expectedEnds[i])) {
+                    report.recordMismatch(name, regex, inputs[i],
+                            Arrays.toString(expectedEnds[i]), Arrays.toString(actual[i]));
+                }
+            }
+        }
+    }
+
+    private static boolean[][] getMatchingRanges(NFA nfa, String input) {
+        // ranges[from][to] holds if the NFA accepts input[from, to)
+        boolean[][] ranges = new boolean[input.length() + 1][input.length() + 1];
+        for (int from = 0; from <= input.length(); from++) {
+            for (int to = from; to <= input.length(); to++) {
+                ranges[from][to] = nfa.accepts(input.substring(from, to));
+            }
+        }
+        return ranges;
+    }
+
+    private static <T> T time(String engine, String regex, boolean isTimed,
+                              DifferentialReport report, Supplier<T> run) {
+        /* A slow run is tried again up to RETRIES times and the fastest is kept, so that a
+        collection or a compilation landing in one run is not taken for a cliff. */
+        long start = System.nanoTime();
+        T result = run.get();
+        long nanos = System.nanoTime() - start;
+        if (result == null) {
+            return null;
+        }
+
+        for (int i = 0; isTimed && i < RETRIES && nanos >= MIN_CLIFF_NANOS; i++) {
+            start = System.nanoTime();
+            run.get();
+            nanos = Math.min(nanos, System.nanoTime() - start);
+        }
+        if (isTimed) {
+            report.recordTime(engine, regex, nanos);
+        }
+        return result;
+    }
+
+    String nextRegex() {
+        return nextRegex(maxDepth);
+    }
+
+    private String nextRegex(int depth) {
+        /* Every compound part is in parentheses, so the regex means the same under any
+        precedence, and every part is an atom that a postfix operator can follow. */
+        int choice = depth == 0 ? 0 : random.nextInt(12);
+        if (choice < 4) {
+            return Character.toString(letters[random.nextInt(letters.length)]);
+        } else if (choice < 7) {
+            return "(" + nextRegex(depth - 1) + nextRegex(depth - 1) + ")";
+        } else if (choice < 9) {
+            return "(" + nextRegex(depth - 1) + "|" + nextRegex(depth - 1) + ")";
+        } else if (choice < 10) {
+            return nextRegex(depth - 1) + "*";
+        } else if (choice < 11) {
+            int min = random.nextInt(3);
+            int max = min + random.nextInt(3);
+            String bounds = random.nextBoolean() ? min + "," + max : min + ",";
+            return nextRegex(depth - 1) + "{" + bounds + "}";
+        }
+        return "()";
+    }
+
+    String[] nextInputs() {
+        String[] inputs = new String[inputsPerRegex];
+        for (int i = 0; i < inputs.length; i++) {
+            char[] input = new char[random.nextInt(maxInputLength + 1)];
+            for (int j = 0; j < input.length; j++) {
+                boolean isOutside = random.nextInt(20) == 0;
+                input[j] = isOutside ? OUTSIDE : letters[random.nextInt(letters.length)];
+            }
+            inputs[i] = new String(input);
+        }
+        return inputs;
+    }
+
+    static String toJavaRegex(String infix) {
+        StringBuilder sb = new StringBuilder();
+        RegexNode.parse(infix).accept(new JavaRegexWriter(sb));
+        return sb.toString();
+    }
+
+    private static Acceptor forEach(Function<String, Boolean> matcher) {
+        return inputs -> {
+            boolean[] results = new boolean[inputs.length];
+            for (int i = 0; i < inputs.length; i++) {
+                results[i] = matcher.apply(inputs[i]);
+            }
+            return results;
+        };
+    }
+
+    private static Acceptor accepts(NFA nfa) {
+        return forEach(nfa::accepts);
+    }
+
+    private static Acceptor matches(Matcher matcher) {
+        return forEach(matcher::matches);
+    }
+
+    private static LongestMatcher longestMatches(Matcher matcher) {
+        return input -> {
+            int[] ends = new int[input.length() + 1];
+            for (int from = 0; from <= input.length(); from++) {
+                ends[from] = matcher.longestMatch(input, from);
+            }
+            return ends;
+        };
+    }
+
+    private static int[] longestMatches(String input, RangeMatcher matcher) {
+        // Tries every end from the longest down, which is slow but has nothing to get wrong
+        int[] ends = new int[input.length() + 1];
+        for (int from = 0; from <= input.length(); from++) {
+            ends[from] = Matcher.NO_MATCH;
+            for (int to = input.length(); to >= from; to--) {
+                if (matcher.matches(from, to)) {
+                    ends[from] = to;
+                    break;
+                }
+            }
+        }
+        return ends;
+    }
+
+    private static AhoCorasick toAhoCorasick(String regex) {
+        // Only alternations of plain words; an empty word would match at every offset
+        Set<String> words = RegexNode.parse(regex).accept(new RegexLiterals());
+        boolean isWords = words != null && !words.isEmpty() && !words.contains("");
+        return isWords ? AhoCorasick.wordsToAhoCorasick(words) : null;
+    }
+
+    private static Lexer toLexer(String regex) {
+        // A lexer of one pattern, which must not match the empty string
+        boolean matchesEmpty = NFA.regexToNFA(regex).accepts("");
+        return matchesEmpty ? null : Lexer.regexesToLexer(Collections.singletonList(regex));
+    }
+
+    private interface RangeMatcher {
+        boolean matches(int from, int to);
+    }
+}
+
+interface Acceptor {
+    // Whether each whole input matches
+    boolean[] matchAll(String[] inputs);
+}
+
+interface LongestMatcher {
+    // The end of the longest match starting at each offset of the input, or Matcher.NO_MATCH
+    int[] longestMatches(String input);
+}
+
+interface EndFinder {
+    // Whether some non-empty match ends at each offset of the input
+    boolean[] findEnds(String input);
+}
+
+class SourceCompiler {
+    /* Compiles the source of one class in memory with the JDK's compiler, with nothing from this
+    project on the class path, and loads it on its own class loader. */
+    static Class<?> compile(String className, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("This runtime has no Java compiler");
+        }
+
+        Map<String, ByteArrayOutputStream> classes = new HashMap<>();
+        JavaFileManager files = new ForwardingJavaFileManager<>(
+                compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name,
+                                                       JavaFileObject.Kind kind,
+                                                       FileObject sibling) {
+                URI uri = URI.create("bytes:///" + name.replace('.', '/') + kind.extension);
+                return new SimpleJavaFileObject(uri, kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return classes.computeIfAbsent(name, n -> new ByteArrayOutputStream());
+                    }
+                };
+            }
+        };
+        URI uri = URI.create("string:///" + className.replace('.', '/') + ".java");
+        JavaFileObject file = new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        StringWriter errors = new StringWriter();
+        boolean isCompiled = compiler.getTask(errors, files, null,
+                Arrays.asList("-classpath", ""), null, Collections.singletonList(file)).call();
+        if (!isCompiled) {
+            throw new IllegalStateException("Could not compile " + className + ": " + errors);
+        }
+
+        ClassLoader loader = new ClassLoader(null) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                ByteArrayOutputStream bytes = classes.get(name);
+                if (bytes == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                return defineClass(name, bytes.toByteArray(), 0, bytes.size());
+            }
+        };
+        try {
+            return loader.loadClass(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Method getMethod(Class<?> owner, String name, Class<?>... parameterTypes) {
+        try {
+            return owner.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Object invoke(Method method, Object... arguments) {
+        // Static methods only
+        try {
+            return method.invoke(null, arguments);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
+
+class DifferentialReport {
+    private final List<String> mismatches = new ArrayList<>();
+    private final Map<String, Map<String, Long>> times = new TreeMap<>();
+
+    void recordMismatch(String engine, String regex, String input, String expected,
+                        String actual) {
+        mismatches.add(engine + " on " + regex + " with \"" + input + "\": expected " +
+                expected + ", got " + actual);
+    }
+
+    void recordFailure(String engine, String regex, Throwable failure) {
+        mismatches.add(engine + " on " + regex + " threw " + failure);
+    }
+
+    void recordTime(String engine, String regex, long nanos) {
+        // A regex drawn twice keeps its slower time
+        times.computeIfAbsent(engine, name -> new LinkedHashMap<>()).merge(regex, nanos, Math::max);
+    }
+
+    List<String> getMismatches() {
+        return mismatches;
+    }
+
+    long getMedianTime(String engine) {
+        long[] sorted = times.get(engine).values().stream().mapToLong(Long::longValue).sorted()
+                .toArray();
+        return sorted[sorted.length / 2];
+    }
+
+    long getTotalTime(String engine) {
+        return times.get(engine).values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    List<String> getCliffs() {
+        List<String> cliffs = new ArrayList<>();
+        for (String engine : times.keySet()) {
+            long median = getMedianTime(engine);
+            for (Map.Entry<String, Long> entry : times.get(engine).entrySet()) {
+                long nanos = entry.getValue();
+                boolean isCliff = nanos >= DifferentialTester.MIN_CLIFF_NANOS &&
+                        nanos > DifferentialTester.CLIFF_FACTOR * median;
+                if (isCliff) {
+                    cliffs.add(engine + " on " + entry.getKey() + ": " + nanos / 1000 +
+                            " us, median " + median / 1000 + " us");
+                }
+            }
+        }
+        return cliffs;
+    }
+
+    Set<String> getEngines() {
+        return times.keySet();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %12s %12s%n", "Engine", "Median (us)", "Total (ms)"));
+        for (String engine : times.keySet()) {
+            sb.append(String.format("%-28s %12d %12d%n", engine, getMedianTime(engine) / 1000,
+                    getTotalTime(engine) / 1_000_000));
+        }
+
+        List<String> cliffs = getCliffs();
+        sb.append(cliffs.size()).append(" performance cliffs\n");
+        for (String cliff : cliffs) {
+            sb.append("\t").append(cliff).append("\n");
+        }
+
+        sb.append(mismatches.size()).append(" mismatches\n");
+        for (String mismatch : mismatches) {
+            sb.append("\t").append(mismatch).append("\n");
+        }
+        return sb.toString();
+    }
+}
+
+class JavaRegexWriter implements RegexVisitor<Void> {
+    /* Writes a regex tree in java.util.regex syntax. There, concatenation binds tighter than
+    alternation, the other way around from this package, so an alternation inside a
+    concatenation needs parentheses of its own. Every group is written as a non-capturing one,
+    and letters other than ASCII letters and digits are written as hex escapes. */
+    private final StringBuilder sb;
+
+    JavaRegexWriter(StringBuilder sb) {
+        this.sb = sb;
+    }
+
+    @Override
+    public Void visitSymbol(RegexSymbol node) {
+        char consumed = node.getConsumed();
+        if (node.isEpsilon()) {
+            sb.append("(?:)");
+        } else if (consumed < 0x80 && Character.isLetterOrDigit(consumed)) {
+            sb.append(consumed);
+        } else {
+            sb.append(String.format("\\x{%x}", (int) consumed));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitConcatenation(RegexConcatenation node) {
+        for (RegexNode child : node.getChildren()) {
+            if (child instanceof RegexAlternation) {
+                writeGroup(child);
+            } else {
+                child.accept(this);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitAlternation(RegexAlternation node) {
+        List<RegexNode> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0) {
+                sb.append('|');
+            }
+            children.get(i).accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitStar(RegexStar node) {
+        writeOperand(node.getChild());
+        sb.append('*');
+        return null;
+    }
+
+    @Override
+    public Void visitGroup(RegexGroup node) {
+        writeGroup(node.getChild());
+        return null;
+    }
+
+    @Override
+    public Void visitRepetition(RegexRepetition node) {
+        writeOperand(node.getChild());
+        sb.append('{').append(node.getMin()).append(',');
+        if (!node.isUnbounded()) {
+            sb.append(node.getMax());
+        }
+        sb.append('}');
+        return null;
+    }
+
+    private void writeOperand(RegexNode child) {
+        // A postfix operator applies to the last atom before it, so anything longer is grouped
+        boolean isAtom = child instanceof RegexGroup ||
+                (child instanceof RegexSymbol && !((RegexSymbol) child).isEpsilon());
+        if (isAtom) {
+            child.accept(this);
+        } else {
+            writeGroup(child);
+        }
+    }
+
+    private void writeGroup(RegexNode child) {
+        sb.append("(?:");
+        child.accept(this);
+        sb.append(')');
+    }
+}
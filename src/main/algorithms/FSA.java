@@ -3,6 +3,10 @@ package algorithms;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,35 +33,68 @@ class FSA implements DOT {
     public static void main(String[] args) throws IOException {
         TreeMap<String, String> arguments = getArguments(args);
 
+        boolean printStatistics = arguments.containsKey("stats");
+
+        // Standard output is left to the JSON, so that it can be parsed as is
+        PrintStream messages = printStatistics ? System.err : System.out;
+
         try {
             String inputRegex = arguments.get("inputRegex");
             String outputPrefix = arguments.get("outputPrefix");
+            boolean reduceNFA = arguments.containsKey("reduce");
+            String javaClass = arguments.get("javaClass");
 
             if (inputRegex == null) {
                 inputRegex = "";
-                System.out.println("Input regular expression not specified, using empty " +
+                messages.println("Input regular expression not specified, using empty " +
                         "string by default");
             }
 
             checkCondition(
-                    outputPrefix == null,
+                    outputPrefix == null && !printStatistics && javaClass == null,
                     "ERROR: Output filename prefix not specified");
 
-            TreeMap<Label, DOT> structures = getStructures(inputRegex);
-            createDOTFiles(outputPrefix, structures);
+            FSAStatistics statistics = new FSAStatistics();
+            TreeMap<Label, DOT> structures = getStructures(inputRegex, statistics, reduceNFA);
+
+            if (outputPrefix != null) {
+                messages.println("Printing out NFA, DFA, and minimal DFA");
+                createDOTFiles(outputPrefix, structures);
+            }
+
+            if (javaClass != null) {
+                messages.println("Printing out a scanner for the minimal DFA");
+                createScannerFile(javaClass, (DFA) structures.get(Label.minDfa));
+            }
+
+            if (printStatistics) {
+                System.out.println(statistics.toJSON());
+            }
 
         } catch (Exception e) {
-            System.out.println("ERROR: Invalid regular expression");
+            messages.println("ERROR: Invalid regular expression");
             throw e;
         }
     }
 
     @NotNull
-    private static TreeMap<Label, DOT> getStructures(String inputRegex) {
-        System.out.println("Printing out NFA, DFA, and minimal DFA");
-        NFA nfa = NFA.regexToNFA(inputRegex);
-        DFA dfa = DFA.NFAtoDFA(nfa);
-        DFA minDfa = DFA.DFAtoMinDFA(dfa);
+    static TreeMap<Label, DOT> getStructures(String inputRegex, FSAStatistics statistics) {
+        return getStructures(inputRegex, statistics, false);
+    }
+
+    @NotNull
+    static TreeMap<Label, DOT> getStructures(String inputRegex, FSAStatistics statistics,
+                                             boolean reduceNFA) {
+        NFA thompson = statistics.time("regexToNFA", () -> NFA.regexToNFA(inputRegex));
+        NFA nfa = !reduceNFA ? thompson : statistics.time("reduceNFA",
+                () -> thompson.removeEpsilons().reduceByBisimulation());
+        statistics.recordNFA(nfa);
+
+        DFA dfa = statistics.time("NFAtoDFA", () -> DFA.NFAtoDFA(nfa, statistics));
+        statistics.recordDFA(dfa);
+
+        DFA minDfa = statistics.time("DFAtoMinDFA", () -> DFA.DFAtoMinDFA(dfa, statistics));
+        statistics.recordMinDFA(minDfa);
 
         TreeMap<Label, DOT> structures = new TreeMap<>();
         structures.put(Label.nfa, nfa);
@@ -69,6 +106,14 @@ class FSA implements DOT {
     private static TreeMap<String, String> getArguments(String[] args) {
         TreeMap<String, String> arguments = new TreeMap<>();
 
+        if (Arrays.asList(args).contains("--stats")) {
+            arguments.put("stats", "");
+        }
+
+        if (Arrays.asList(args).contains("--reduce")) {
+            arguments.put("reduce", "");
+        }
+
         for (int i = 0; i < args.length - 1; i++) {
             String nonFlag = getNonFlag(args, i + 1);
 
@@ -79,10 +124,20 @@ class FSA implements DOT {
             if (args[i].equals("-o")) {
                 arguments.put("outputPrefix", nonFlag);
             }
+
+            if (args[i].equals("-j")) {
+                arguments.put("javaClass", nonFlag);
+            }
         }
         return arguments;
     }
 
+    private static void createScannerFile(String javaClass, DFA minDfa) throws IOException {
+        String fileName = javaClass.substring(javaClass.lastIndexOf('.') + 1) + ".java";
+        String source = ScannerGenerator.generate(minDfa, javaClass);
+        Files.write(Paths.get(fileName), source.getBytes(StandardCharsets.UTF_8));
+    }
+
     @Override
     public String toDOT() {
         return String.valueOf(printFinalStates()) +
@@ -235,23 +290,27 @@ class Alphabet extends TreeSet<Character> {
 class State implements Comparable<State> {
     private static int idCounter;
     private final int id;
-    private String alternativeLabel;
+
+    /* The ids of the states a DFA state was built from, in order, or null for a state built
+    from nothing. Only DOT output reads them, so the label is not made until then; DFA states
+    made from the same subset or block share one array. */
+    private final int[] members;
 
     State() {
-        id = idCounter++;
+        this(idCounter++, (int[]) null);
     }
 
     State(int id) {
-        this.id = id;
+        this(id, (int[]) null);
     }
 
     State(int id, States states) {
+        this(id, states.stream().mapToInt(State::getId).toArray());
+    }
+
+    State(int id, int[] members) {
         this.id = id;
-        String intermediate = states
-                .stream()
-                .map(State::toString)
-                .collect(Collectors.joining(", "));
-        alternativeLabel = "{" + intermediate + "}";
+        this.members = members;
     }
 
     static void setIdCounter(int idCounter) {
@@ -268,7 +327,13 @@ class State implements Comparable<State> {
     }
 
     String getAlternativeLabel() {
-        return alternativeLabel;
+        if (members == null) {
+            return null;
+        }
+        return Arrays
+                .stream(members)
+                .mapToObj(Integer::toString)
+                .collect(Collectors.joining(", ", "{", "}"));
     }
 
     @Override
@@ -276,7 +341,7 @@ class State implements Comparable<State> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         State other = (State) o;
-        return id == other.id && Objects.equals(alternativeLabel, other.alternativeLabel);
+        return id == other.id && Arrays.equals(members, other.members);
     }
 
     @Override
@@ -286,10 +351,7 @@ class State implements Comparable<State> {
 
     @Override
     public int compareTo(@NotNull State other) {
-        return Comparator.comparing(State::getId)
-                .thenComparing(state -> Objects.equals(this.alternativeLabel,
-                        other.alternativeLabel))
-                .compare(this, other);
+        return Integer.compare(id, other.id);
     }
 
     int getId() {
@@ -0,0 +1,153 @@
+package algorithms;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+class FSAStatistics {
+    // Allocation is reported as UNAVAILABLE on JVMs that do not track it per thread
+    static final long UNAVAILABLE = -1;
+
+    private final Map<String, long[]> phases = new LinkedHashMap<>();
+    private final List<Integer> partitionSizes = new ArrayList<>();
+    private int nfaStates;
+    private int nfaMoves;
+    private int epsilonClosures;
+    private int dfaStates;
+    private int dfaMoves;
+    private int minDfaStates;
+    private int minDfaMoves;
+
+    <T> T time(String phase, Supplier<T> supplier) {
+        long allocatedBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+
+        T result = supplier.get();
+
+        long wallTime = System.nanoTime() - start;
+        long allocatedAfter = getAllocatedBytes();
+        boolean canMeasureAllocation = allocatedBefore != UNAVAILABLE;
+        long allocated = canMeasureAllocation ? allocatedAfter - allocatedBefore : UNAVAILABLE;
+
+        phases.put(phase, new long[]{wallTime, allocated});
+        return result;
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()
+                    && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+
+        return UNAVAILABLE;
+    }
+
+    void recordNFA(NFA nfa) {
+        nfaStates = nfa.getStates().size();
+        nfaMoves = nfa.getMoves().size();
+    }
+
+    void recordDFA(DFA dfa) {
+        dfaStates = dfa.getStates().size();
+        dfaMoves = dfa.getMoves().size();
+    }
+
+    void recordMinDFA(DFA minDfa) {
+        minDfaStates = minDfa.getStates().size();
+        minDfaMoves = minDfa.getMoves().size();
+    }
+
+    void recordEpsilonClosure() {
+        epsilonClosures++;
+    }
+
+    void recordMinimizationRound(Partition partition) {
+        partitionSizes.add(partition.size());
+    }
+
+    String toJSON() {
+        String phases = this.phases
+                .entrySet()
+                .stream()
+                .map(entry -> "\t\t\"" + entry.getKey() + "\": {" +
+                        "\"wallTimeNanos\": " + entry.getValue()[0] + ", " +
+                        "\"allocatedBytes\": " + entry.getValue()[1] + "}")
+                .collect(Collectors.joining(",\n"));
+
+        String partitionSizes = this.partitionSizes
+                .stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(", "));
+
+        return "{\n" +
+                "\t\"phases\": {\n" + phases + "\n\t},\n" +
+                "\t\"nfaStates\": " + nfaStates + ",\n" +
+                "\t\"nfaMoves\": " + nfaMoves + ",\n" +
+                "\t\"epsilonClosures\": " + epsilonClosures + ",\n" +
+                "\t\"dfaStates\": " + dfaStates + ",\n" +
+                "\t\"dfaMoves\": " + dfaMoves + ",\n" +
+                "\t\"minDfaStates\": " + minDfaStates + ",\n" +
+                "\t\"minDfaMoves\": " + minDfaMoves + ",\n" +
+                "\t\"minimizationRounds\": " + getMinimizationRounds() + ",\n" +
+                "\t\"partitionSizes\": [" + partitionSizes + "]\n" +
+                "}";
+    }
+
+    Map<String, long[]> getPhases() {
+        return phases;
+    }
+
+    long getWallTimeNanos(String phase) {
+        return phases.get(phase)[0];
+    }
+
+    long getAllocatedBytes(String phase) {
+        return phases.get(phase)[1];
+    }
+
+    int getNFAStates() {
+        return nfaStates;
+    }
+
+    int getNFAMoves() {
+        return nfaMoves;
+    }
+
+    int getEpsilonClosures() {
+        return epsilonClosures;
+    }
+
+    int getDFAStates() {
+        return dfaStates;
+    }
+
+    int getDFAMoves() {
+        return dfaMoves;
+    }
+
+    int getMinDFAStates() {
+        return minDfaStates;
+    }
+
+    int getMinDFAMoves() {
+        return minDfaMoves;
+    }
+
+    int getMinimizationRounds() {
+        return partitionSizes.size();
+    }
+
+    List<Integer> getPartitionSizes() {
+        return partitionSizes;
+    }
+}
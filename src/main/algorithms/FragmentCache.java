@@ -0,0 +1,360 @@
+package algorithms;
+
+import java.util.*;
+
+import static algorithms.FSA.EPSILON;
+
+class FragmentCache {
+    /* Thompson fragments of simplified regex subtrees, keyed by the subtrees themselves, whose
+    equals and hashCode are structural. A fragment numbers its states from 0, so one fragment
+    can be copied into any NFA. Recompiling a pattern only builds the subtrees that changed.
+    Whole patterns also keep their minimal DFA, and each caller gets its own copy of the sets,
+    so that adding a state or move to one does not change what later callers get. States and
+    moves cannot change, so the copies share them. The least recently used entries are evicted
+    once the cache is full. */
+    private final Map<RegexNode, Fragment> fragments;
+    private final Map<RegexNode, DFA> minDfas;
+    private int hits;
+    private int misses;
+
+    FragmentCache(int capacity) {
+        fragments = makeLRUMap(capacity);
+        minDfas = makeLRUMap(capacity);
+    }
+
+    private static <T> Map<RegexNode, T> makeLRUMap(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RegexNode, T> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized NFA getNFA(String infix) {
+        RegexNode tree = RegexNode.parse(infix).simplify();
+        return getFragment(tree).toNFA();
+    }
+
+    synchronized DFA getMinDFA(String infix) {
+        RegexNode tree = RegexNode.parse(infix).simplify();
+        DFA minDfa = minDfas.get(tree);
+
+        if (minDfa == null) {
+            NFA nfa = getFragment(tree).toNFA();
+            minDfa = DFA.DFAtoMinDFA(DFA.NFAtoDFA(nfa));
+            minDfas.put(tree, minDfa);
+        }
+        return new DFA(new Alphabet(minDfa.alphabet), new States(minDfa.states), minDfa.start,
+                new States(minDfa.finalStates), new Moves(minDfa.moves), minDfa.getPhi());
+    }
+
+    Fragment getFragment(RegexNode tree) {
+        return tree.accept(new CachedFragmentBuilder(this));
+    }
+
+    Fragment lookUp(RegexNode node) {
+        Fragment fragment = fragments.get(node);
+        if (fragment != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return fragment;
+    }
+
+    void store(RegexNode node, Fragment fragment) {
+        fragments.put(node, fragment);
+    }
+
+    synchronized int getHits() {
+        return hits;
+    }
+
+    synchronized int getMisses() {
+        return misses;
+    }
+
+    synchronized int size() {
+        return fragments.size();
+    }
+}
+
+class Fragment {
+    // States are numbered from 0 up to stateCount; moves are kept as parallel arrays
+    final int stateCount;
+    final int start;
+    final int[] finals;
+    final int[] froms;
+    final char[] consumed;
+    final int[] tos;
+
+    Fragment(int stateCount, int start, int[] finals, int[] froms, char[] consumed, int[] tos) {
+        this.stateCount = stateCount;
+        this.start = start;
+        this.finals = finals;
+        this.froms = froms;
+        this.consumed = consumed;
+        this.tos = tos;
+    }
+
+    NFA toNFA() {
+        // States take fresh ids from the shared counter, in the order of the fragment
+        State[] states = new State[stateCount];
+        for (int i = 0; i < stateCount; i++) {
+            states[i] = new State();
+        }
+
+        Alphabet alphabet = new Alphabet();
+        Moves moves = new Moves();
+        for (int i = 0; i < froms.length; i++) {
+            moves.add(new Move(states[froms[i]], consumed[i], states[tos[i]]));
+            if (consumed[i] != EPSILON) {
+                alphabet.add(consumed[i]);
+            }
+        }
+
+        States finalStates = new States();
+        for (int finalState : finals) {
+            finalStates.add(states[finalState]);
+        }
+
+        return new NFA(alphabet, new States(Arrays.asList(states)), states[start], finalStates,
+                moves);
+    }
+
+    /* Thompson's construction over fragments, in the same shapes as NFA.concatenate,
+    NFA.alternate, NFA.kleeneStar and NFA.repeat. Alternatives get one shared start and final
+    state rather than a pair per binary alternation. */
+    static Fragment symbol(char consumed) {
+        FragmentBuilder builder = new FragmentBuilder();
+        int start = builder.addState();
+        int finalState = builder.addState();
+        builder.addMove(start, consumed, finalState);
+        return builder.build(start, new int[]{finalState});
+    }
+
+    static Fragment concatenate(List<Fragment> children) {
+        FragmentBuilder builder = new FragmentBuilder();
+        int start = -1;
+        int[] finals = new int[0];
+
+        for (Fragment fragment : children) {
+            int offset = builder.copy(fragment);
+
+            if (start == -1) {
+                start = fragment.start + offset;
+            }
+            for (int finalState : finals) {
+                builder.addMove(finalState, EPSILON, fragment.start + offset);
+            }
+            finals = FragmentBuilder.shift(fragment.finals, offset);
+        }
+
+        return builder.build(start, finals);
+    }
+
+    static Fragment alternate(List<Fragment> children) {
+        FragmentBuilder builder = new FragmentBuilder();
+        int start = builder.addState();
+        List<Integer> childFinals = new ArrayList<>();
+
+        for (Fragment fragment : children) {
+            int offset = builder.copy(fragment);
+            builder.addMove(start, EPSILON, fragment.start + offset);
+            for (int finalState : fragment.finals) {
+                childFinals.add(finalState + offset);
+            }
+        }
+
+        int newFinal = builder.addState();
+        for (int finalState : childFinals) {
+            builder.addMove(finalState, EPSILON, newFinal);
+        }
+        return builder.build(start, new int[]{newFinal});
+    }
+
+    static Fragment star(Fragment child) {
+        FragmentBuilder builder = new FragmentBuilder();
+        int offset = builder.copy(child);
+        int childStart = child.start + offset;
+        int start = builder.addState();
+        int newFinal = builder.addState();
+
+        for (int finalState : FragmentBuilder.shift(child.finals, offset)) {
+            builder.addMove(finalState, EPSILON, childStart);
+            builder.addMove(finalState, EPSILON, newFinal);
+        }
+        builder.addMove(start, EPSILON, childStart);
+        builder.addMove(start, EPSILON, newFinal);
+        return builder.build(start, new int[]{newFinal});
+    }
+
+    static Fragment repeat(Fragment child, int min, int max) {
+        // Mandatory copies in a chain, then a star or nested optional copies, as in NFA.repeat
+        FragmentBuilder builder = new FragmentBuilder();
+        int start = builder.addState();
+        int[] finals = {start};
+
+        for (int copies = 0; copies < min; copies++) {
+            finals = append(builder, finals, child);
+        }
+
+        if (max == Regex.UNBOUNDED) {
+            finals = append(builder, finals, star(child));
+            return builder.build(start, finals);
+        }
+
+        List<Integer> optionalFinals = new ArrayList<>();
+        for (int copies = min; copies < max; copies++) {
+            for (int finalState : finals) {
+                optionalFinals.add(finalState);
+            }
+            finals = append(builder, finals, child);
+        }
+
+        if (optionalFinals.isEmpty()) {
+            return builder.build(start, finals);
+        }
+
+        int newFinal = builder.addState();
+        for (int finalState : optionalFinals) {
+            builder.addMove(finalState, EPSILON, newFinal);
+        }
+        for (int finalState : finals) {
+            builder.addMove(finalState, EPSILON, newFinal);
+        }
+        return builder.build(start, new int[]{newFinal});
+    }
+
+    private static int[] append(FragmentBuilder builder, int[] finals, Fragment fragment) {
+        int offset = builder.copy(fragment);
+        for (int finalState : finals) {
+            builder.addMove(finalState, EPSILON, fragment.start + offset);
+        }
+        return FragmentBuilder.shift(fragment.finals, offset);
+    }
+}
+
+class FragmentBuilder {
+    // Lays fragments side by side, shifting their states past the ones already laid out
+    private int stateCount;
+    private final List<Integer> froms = new ArrayList<>();
+    private final List<Character> consumed = new ArrayList<>();
+    private final List<Integer> tos = new ArrayList<>();
+
+    int addState() {
+        return stateCount++;
+    }
+
+    void addMove(int from, char consumed, int to) {
+        froms.add(from);
+        this.consumed.add(consumed);
+        tos.add(to);
+    }
+
+    int copy(Fragment fragment) {
+        int offset = stateCount;
+        stateCount += fragment.stateCount;
+        for (int i = 0; i < fragment.froms.length; i++) {
+            addMove(fragment.froms[i] + offset, fragment.consumed[i], fragment.tos[i] + offset);
+        }
+        return offset;
+    }
+
+    Fragment build(int start, int[] finals) {
+        int[] fromArray = new int[froms.size()];
+        char[] consumedArray = new char[consumed.size()];
+        int[] toArray = new int[tos.size()];
+        for (int i = 0; i < fromArray.length; i++) {
+            fromArray[i] = froms.get(i);
+            consumedArray[i] = consumed.get(i);
+            toArray[i] = tos.get(i);
+        }
+        return new Fragment(stateCount, start, finals, fromArray, consumedArray, toArray);
+    }
+
+    static int[] shift(int[] states, int offset) {
+        int[] shifted = new int[states.length];
+        for (int i = 0; i < states.length; i++) {
+            shifted[i] = states[i] + offset;
+        }
+        return shifted;
+    }
+}
+
+class CachedFragmentBuilder implements RegexVisitor<Fragment> {
+    // Builds each subtree the cache has not seen yet, and remembers it
+    private final FragmentCache cache;
+
+    CachedFragmentBuilder(FragmentCache cache) {
+        this.cache = cache;
+    }
+
+    private Fragment remember(RegexNode node, Fragment built) {
+        cache.store(node, built);
+        return built;
+    }
+
+    private List<Fragment> visitAll(List<RegexNode> children) {
+        List<Fragment> fragments = new ArrayList<>();
+        for (RegexNode child : children) {
+            fragments.add(child.accept(this));
+        }
+        return fragments;
+    }
+
+    @Override
+    public Fragment visitSymbol(RegexSymbol node) {
+        Fragment cached = cache.lookUp(node);
+        if (cached != null) {
+            return cached;
+        }
+        return remember(node, Fragment.symbol(node.getConsumed()));
+    }
+
+    @Override
+    public Fragment visitConcatenation(RegexConcatenation node) {
+        Fragment cached = cache.lookUp(node);
+        if (cached != null) {
+            return cached;
+        }
+        return remember(node, Fragment.concatenate(visitAll(node.getChildren())));
+    }
+
+    @Override
+    public Fragment visitAlternation(RegexAlternation node) {
+        Fragment cached = cache.lookUp(node);
+        if (cached != null) {
+            return cached;
+        }
+        return remember(node, Fragment.alternate(visitAll(node.getChildren())));
+    }
+
+    @Override
+    public Fragment visitStar(RegexStar node) {
+        Fragment cached = cache.lookUp(node);
+        if (cached != null) {
+            return cached;
+        }
+
+        Fragment child = node.getChild().accept(this);
+        return remember(node, Fragment.star(child));
+    }
+
+    @Override
+    public Fragment visitGroup(RegexGroup node) {
+        return node.getChild().accept(this);
+    }
+
+    @Override
+    public Fragment visitRepetition(RegexRepetition node) {
+        Fragment cached = cache.lookUp(node);
+        if (cached != null) {
+            return cached;
+        }
+
+        Fragment child = node.getChild().accept(this);
+        return remember(node, Fragment.repeat(child, node.getMin(), node.getMax()));
+    }
+}
@@ -0,0 +1,218 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class IncrementalLexer {
+    /* Keeps the tokens of a text up to date as it is edited, lexing again only around the edit.
+    Each line start has a checkpoint: the DFA state there, partway through the token that
+    covers it, which is the start state when a token begins right at the line. After an edit,
+    lexing restarts at the first token whose scan read as far as the edited line; the tokens
+    before it read nothing that changed. It stops at the first line start past the edit whose
+    old and new checkpoints are both the start state. A token begins there in both versions
+    and the text from there on is unchanged, so every later token is only shifted by the edit.
+    Equal states in the middle of a token are not enough, since the token may have begun
+    elsewhere and the longest match may back up before the line. Shifting offsets costs
+    arithmetic over the later tokens and lines, but no lexing. */
+    private final Lexer lexer;
+    private final int start;
+    private final StringBuilder text = new StringBuilder();
+
+    // Tokens as columns; a scan end is how far the DFA read to find its token
+    private IntList types = new IntList();
+    private IntList starts = new IntList();
+    private IntList ends = new IntList();
+    private IntList scanEnds = new IntList();
+
+    private IntList lineStarts = new IntList();
+    private IntList checkpoints = new IntList();
+
+    // No token's scan reaches further than this past the token's start
+    private int maxReach;
+    private int lastRelexed;
+
+    IncrementalLexer(Lexer lexer, String text) {
+        this.lexer = lexer;
+        start = lexer.getDFA().getStart();
+        lineStarts.add(0);
+        checkpoints.add(start);
+        edit(0, 0, text);
+    }
+
+    void edit(int offset, int removed, String inserted) {
+        if (offset < 0 || removed < 0 || offset + removed > text.length()) {
+            throw new IndexOutOfBoundsException("Edit outside the text: " + offset + ", " +
+                    removed);
+        }
+
+        int delta = inserted.length() - removed;
+        int editLine = lineStarts.lastAtMost(offset);
+        int restartToken = findRestartToken(lineStarts.get(editLine));
+        int restart = restartToken == 0 ? 0 : ends.get(restartToken - 1);
+        text.replace(offset, offset + removed, inserted);
+
+        // Lines up to the edited one stay; lines that began inside the removed text go
+        IntList newLineStarts = lineStarts.copyOf(editLine + 1);
+        for (int i = 0; i < inserted.length(); i++) {
+            if (inserted.charAt(i) == '\n') {
+                newLineStarts.add(offset + i + 1);
+            }
+        }
+        int firstKeptNew = newLineStarts.size();
+        int firstKeptOld = lineStarts.lastAtMost(offset + removed) + 1;
+        newLineStarts.addAll(lineStarts, firstKeptOld, lineStarts.size(), delta);
+
+        IntList newTypes = types.copyOf(restartToken);
+        IntList newStarts = starts.copyOf(restartToken);
+        IntList newEnds = ends.copyOf(restartToken);
+        IntList newScanEnds = scanEnds.copyOf(restartToken);
+        int position = restart;
+        int converged = -1;
+        lastRelexed = 0;
+
+        while (position < text.length()) {
+            int line = newLineStarts.indexOf(position);
+            if (line >= firstKeptNew &&
+                    checkpoints.get(line - firstKeptNew + firstKeptOld) == start) {
+                converged = starts.indexOf(position - delta);
+                break;
+            }
+
+            int[] scanned = lexer.scan(text, position);
+            newTypes.add(scanned[0]);
+            newStarts.add(position);
+            newEnds.add(scanned[1]);
+            newScanEnds.add(scanned[2]);
+            maxReach = Math.max(maxReach, scanned[2] - position);
+            lastRelexed++;
+            position = scanned[1];
+        }
+
+        int convergedAt = Integer.MAX_VALUE;
+        if (converged >= 0) {
+            convergedAt = position;
+            newTypes.addAll(types, converged, types.size(), 0);
+            newStarts.addAll(starts, converged, starts.size(), delta);
+            newEnds.addAll(ends, converged, ends.size(), delta);
+            newScanEnds.addAll(scanEnds, converged, scanEnds.size(), delta);
+        }
+        types = newTypes;
+        starts = newStarts;
+        ends = newEnds;
+        scanEnds = newScanEnds;
+
+        IntList newCheckpoints = new IntList();
+        for (int line = 0; line < newLineStarts.size(); line++) {
+            int lineStart = newLineStarts.get(line);
+            if (lineStart < restart) {
+                newCheckpoints.add(checkpoints.get(line));
+            } else if (line >= firstKeptNew && lineStart >= convergedAt) {
+                newCheckpoints.add(checkpoints.get(line - firstKeptNew + firstKeptOld));
+            } else {
+                newCheckpoints.add(computeCheckpoint(lineStart));
+            }
+        }
+        lineStarts = newLineStarts;
+        checkpoints = newCheckpoints;
+    }
+
+    private int findRestartToken(int lineStart) {
+        // Tokens that start more than maxReach before the line cannot have read as far as it
+        int first = Math.max(0, starts.lastAtMost(lineStart - maxReach));
+        for (int token = first; token < starts.size(); token++) {
+            if (scanEnds.get(token) > lineStart) {
+                return token;
+            }
+        }
+        return starts.size();
+    }
+
+    private int computeCheckpoint(int lineStart) {
+        int token = starts.lastAtMost(lineStart);
+        if (token < 0 || starts.get(token) == lineStart || lineStart >= ends.get(token)) {
+            return start;
+        }
+        return lexer.stateAt(text, starts.get(token), lineStart);
+    }
+
+    List<Token> getTokens() {
+        List<Token> tokens = new ArrayList<>();
+        for (int token = 0; token < types.size(); token++) {
+            tokens.add(new Token(types.get(token), starts.get(token), ends.get(token)));
+        }
+        return tokens;
+    }
+
+    String getText() {
+        return text.toString();
+    }
+
+    int getLineCount() {
+        return lineStarts.size();
+    }
+
+    int getCheckpoint(int line) {
+        return checkpoints.get(line);
+    }
+
+    int getLastRelexed() {
+        return lastRelexed;
+    }
+}
+
+class IntList {
+    // A growable array of ints, kept in ascending order by the lists that are searched
+    private int[] values = new int[16];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    void addAll(IntList other, int from, int to, int delta) {
+        for (int i = from; i < to; i++) {
+            add(other.values[i] + delta);
+        }
+    }
+
+    int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+        }
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    IntList copyOf(int length) {
+        IntList copy = new IntList();
+        copy.addAll(this, 0, length, 0);
+        return copy;
+    }
+
+    int lastAtMost(int value) {
+        // The index of the last value no greater than value, or -1
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    int indexOf(int value) {
+        int index = lastAtMost(value);
+        return index >= 0 && values[index] == value ? index : -1;
+    }
+}
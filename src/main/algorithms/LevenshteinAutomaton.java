@@ -0,0 +1,137 @@
+package algorithms;
+
+import java.util.*;
+
+class LevenshteinAutomaton {
+    /* Accepts every word within maxDistance insertions, deletions and substitutions of word.
+    A state is one row of the edit distance table between word and the input read so far.
+    Entries above maxDistance are capped at maxDistance + 1, so there are finitely many rows.
+    Equal rows are the same state. States are made as they are needed rather than up front. */
+    private final String word;
+    private final int maxDistance;
+
+    LevenshteinAutomaton(String word, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Edit distance must not be negative");
+        }
+        this.word = word;
+        this.maxDistance = maxDistance;
+    }
+
+    int[] getStart() {
+        int[] row = new int[word.length() + 1];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = Math.min(i, maxDistance + 1);
+        }
+        return row;
+    }
+
+    int[] step(int[] row, char consumed) {
+        int[] next = new int[row.length];
+        next[0] = Math.min(row[0] + 1, maxDistance + 1);
+
+        for (int i = 1; i < row.length; i++) {
+            int substitution = row[i - 1] + (word.charAt(i - 1) == consumed ? 0 : 1);
+            int insertion = row[i] + 1;
+            int deletion = next[i - 1] + 1;
+            next[i] = Math.min(Math.min(substitution, insertion),
+                    Math.min(deletion, maxDistance + 1));
+        }
+
+        return next;
+    }
+
+    boolean isAccepting(int[] row) {
+        return row[row.length - 1] <= maxDistance;
+    }
+
+    boolean canAccept(int[] row) {
+        // Entries never decrease along a path, so a row past maxDistance everywhere is dead
+        return Arrays.stream(row).min().orElse(maxDistance + 1) <= maxDistance;
+    }
+
+    int getDistance(int[] row) {
+        return row[row.length - 1];
+    }
+
+    DFA toDFA(Collection<Character> alphabet) {
+        // Every reachable live row over alphabet, numbered breadth first; dead rows are left out
+        Map<List<Integer>, State> states = new HashMap<>();
+        List<int[]> rows = new ArrayList<>();
+        Moves moves = new Moves();
+        States finalStates = new States();
+
+        int[] startRow = getStart();
+        State start = new State(0);
+        states.put(asList(startRow), start);
+        rows.add(startRow);
+
+        for (int i = 0; i < rows.size(); i++) {
+            int[] row = rows.get(i);
+            State from = states.get(asList(row));
+            if (isAccepting(row)) {
+                finalStates.add(from);
+            }
+
+            for (char consumed : new TreeSet<>(alphabet)) {
+                int[] next = step(row, consumed);
+                if (!canAccept(next)) {
+                    continue;
+                }
+
+                State to = states.get(asList(next));
+                if (to == null) {
+                    to = new State(rows.size());
+                    states.put(asList(next), to);
+                    rows.add(next);
+                }
+                moves.add(new Move(from, consumed, to));
+            }
+        }
+
+        return new DFA(new Alphabet(alphabet), new States(states.values()), start, finalStates,
+                moves);
+    }
+
+    private static List<Integer> asList(int[] row) {
+        List<Integer> list = new ArrayList<>(row.length);
+        for (int entry : row) {
+            list.add(entry);
+        }
+        return list;
+    }
+
+    TreeMap<String, Integer> intersect(DFA dictionary) {
+        return intersect(CompiledDFA.DFAtoCompiledDFA(dictionary));
+    }
+
+    TreeMap<String, Integer> intersect(CompiledDFA dictionary) {
+        /* Walks the dictionary and this automaton side by side, depth first, and stops down any
+        path where no word within maxDistance can be reached any more. Only the part of the
+        dictionary close to word is visited. Each word maps to its edit distance from word. */
+        TreeMap<String, Integer> matches = new TreeMap<>();
+        intersect(dictionary, dictionary.getStart(), getStart(), new StringBuilder(), matches);
+        return matches;
+    }
+
+    private void intersect(CompiledDFA dictionary, int state, int[] row, StringBuilder prefix,
+                           TreeMap<String, Integer> matches) {
+        if (dictionary.isAccepting(state) && isAccepting(row)) {
+            matches.put(prefix.toString(), getDistance(row));
+        }
+
+        for (char consumed : dictionary.getAlphabet()) {
+            int next = dictionary.step(state, consumed);
+            if (next == CompiledDFA.DEAD) {
+                continue;
+            }
+
+            int[] nextRow = step(row, consumed);
+            if (canAccept(nextRow)) {
+                prefix.append(consumed);
+                intersect(dictionary, next, nextRow, prefix, matches);
+                prefix.setLength(prefix.length() - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package algorithms;
+
+import java.util.*;
+
+import static algorithms.FSA.EPSILON;
+
+class Lexer {
+    /* Splits input into the longest tokens any of its patterns match, preferring the pattern
+    listed first when two match the same length. A token's type is the index of its pattern.
+    The patterns are joined into one NFA whose start has an ε-move into each of them, which is
+    determinized once; a DFA state's type is the least pattern among the final NFA states it
+    holds. The DFA is not minimized, since DFAtoMinDFA would merge the final states of different
+    patterns. A character no pattern can start with becomes a token of type ERROR on its own.
+    Patterns that match the empty string are rejected, since lexing would stop making
+    progress. */
+    static final int ERROR = -1;
+
+    private final CompiledDFA dfa;
+    private final int[] types;
+
+    Lexer(CompiledDFA dfa, int[] types) {
+        this.dfa = dfa;
+        this.types = types;
+    }
+
+    static Lexer regexesToLexer(List<String> regexes) {
+        State start = new State();
+        Alphabet alphabet = new Alphabet();
+        States states = new States(Collections.singleton(start));
+        States finalStates = new States();
+        Moves moves = new Moves();
+        Map<State, Integer> types = new TreeMap<>();
+
+        for (int type = 0; type < regexes.size(); type++) {
+            NFA nfa = NFA.regexToNFA(regexes.get(type));
+            if (nfa.accepts("")) {
+                throw new IllegalArgumentException("Pattern matches the empty string: " +
+                        regexes.get(type));
+            }
+
+            alphabet.addAll(nfa.alphabet);
+            states.addAll(nfa.getStates());
+            finalStates.addAll(nfa.getFinalStates());
+            moves.addAll(nfa.getMoves());
+            moves.add(new Move(start, EPSILON, nfa.start));
+            for (State finalState : nfa.getFinalStates()) {
+                types.put(finalState, type);
+            }
+        }
+
+        NFA union = new NFA(alphabet, states, start, finalStates, moves);
+        ParallelSubsetConstruction construction = new ParallelSubsetConstruction(union);
+        CompiledDFA dfa = construction.buildCompiledDFA();
+        return new Lexer(dfa, construction.getLeastRanks(types, ERROR));
+    }
+
+    List<Token> lex(CharSequence input) {
+        List<Token> tokens = new ArrayList<>();
+        int from = 0;
+        while (from < input.length()) {
+            Token token = next(input, from);
+            tokens.add(token);
+            from = token.getEnd();
+        }
+        return tokens;
+    }
+
+    Token next(CharSequence input, int from) {
+        int[] scanned = scan(input, from);
+        return new Token(scanned[0], from, scanned[1]);
+    }
+
+    int[] scan(CharSequence input, int from) {
+        /* The type and end of the longest token at from, and how far the DFA read to find it.
+        An edit anywhere before that point can change the token. A scan that runs out of input
+        could go on if more were added, so it counts as reading one past the end. */
+        int state = dfa.getStart();
+        int type = ERROR;
+        int end = from + 1;
+
+        for (int i = from; i < input.length(); i++) {
+            state = dfa.step(state, input.charAt(i));
+            if (state == CompiledDFA.DEAD) {
+                return new int[]{type, end, i + 1};
+            }
+            if (types[state] != ERROR) {
+                type = types[state];
+                end = i + 1;
+            }
+        }
+        return new int[]{type, end, input.length() + 1};
+    }
+
+    int stateAt(CharSequence input, int from, int to) {
+        // The DFA state after reading from up to to, within one token
+        int state = dfa.getStart();
+        for (int i = from; i < to && state != CompiledDFA.DEAD; i++) {
+            state = dfa.step(state, input.charAt(i));
+        }
+        return state;
+    }
+
+    String generateScanner(String className) {
+        return ScannerGenerator.generate(dfa, types, className);
+    }
+
+    CompiledDFA getDFA() {
+        return dfa;
+    }
+}
+
+class Token {
+    private final int type;
+    private final int start;
+    private final int end;
+
+    Token(int type, int start, int end) {
+        this.type = type;
+        this.start = start;
+        this.end = end;
+    }
+
+    int getType() {
+        return type;
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    int getEnd() {
+        return end;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Token token = (Token) o;
+        return type == token.type && start == token.start && end == token.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, start, end);
+    }
+
+    @Override
+    public String toString() {
+        return type + "[" + start + ", " + end + ")";
+    }
+}
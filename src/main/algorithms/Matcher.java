@@ -0,0 +1,23 @@
+package algorithms;
+
+import java.util.Set;
+
+interface Matcher {
+    // Returned by longestMatch when no prefix of the input from the given offset matches
+    int NO_MATCH = -1;
+
+    static Matcher compile(String regex) {
+        // Alternations of plain words skip Thompson's construction and subset construction
+        Set<String> words = RegexNode.parse(regex).accept(new RegexLiterals());
+        if (words != null) {
+            return AhoCorasick.wordsToAhoCorasick(words);
+        }
+
+        return CompiledDFA.DFAtoCompiledDFA(DFA.regexToMinDFA(regex));
+    }
+
+    boolean matches(CharSequence input);
+
+    // The end offset of the longest match starting at from, or NO_MATCH
+    int longestMatch(CharSequence input, int from);
+}
@@ -0,0 +1,114 @@
+package algorithms;
+
+import java.util.Arrays;
+
+class MultiStreamDFA {
+    /* Matches many independent inputs against one DFA. The table is dense and has no dead
+    entries: a row is added for the dead state, a column for letters outside the alphabet, which
+    leads to it, and a column that leaves every state where it is, for inputs that have ended
+    while others in their batch go on. A step is then the same load for every input, which is
+    what lets the subclass in src/vector run a batch of inputs in the lanes of one vector. That
+    subclass needs the incubating Vector API of JDK 16 or later; it is built by the vector
+    profile and found by reflection. It is only used when asked for, since reading letters into
+    columns is still done one input at a time and BatchBenchmark has not shown it to win yet;
+    this class matches one input at a time. */
+    static final String VECTOR_CLASS = "algorithms.VectorMultiStreamDFA";
+    static final int LENGTH_BUCKETS = 256;
+    private static final int ASCII = 128;
+
+    final char[] alphabet;
+    final int[] asciiColumns;
+    final int[] table;
+    final boolean[] accepting;
+    final int start;
+    final int width;
+    final int outsideColumn;
+    final int stayColumn;
+
+    MultiStreamDFA(CompiledDFA dfa) {
+        alphabet = dfa.getAlphabet();
+        outsideColumn = alphabet.length;
+        stayColumn = alphabet.length + 1;
+        width = alphabet.length + 2;
+        start = dfa.getStart();
+
+        int dead = dfa.getStateCount();
+        table = new int[(dead + 1) * width];
+        accepting = new boolean[dead + 1];
+        for (int state = 0; state <= dead; state++) {
+            for (int column = 0; column < alphabet.length; column++) {
+                int to = state == dead ? dead : dfa.step(state, alphabet[column]);
+                table[state * width + column] = to == CompiledDFA.DEAD ? dead : to;
+            }
+            table[state * width + outsideColumn] = dead;
+            table[state * width + stayColumn] = state;
+            accepting[state] = state != dead && dfa.isAccepting(state);
+        }
+
+        asciiColumns = new int[ASCII];
+        Arrays.fill(asciiColumns, outsideColumn);
+        for (int column = 0; column < alphabet.length && alphabet[column] < ASCII; column++) {
+            asciiColumns[alphabet[column]] = column;
+        }
+    }
+
+    static MultiStreamDFA DFAtoMultiStreamDFA(DFA dfa) {
+        return new MultiStreamDFA(CompiledDFA.DFAtoCompiledDFA(dfa));
+    }
+
+    static MultiStreamDFA DFAtoVectorMultiStreamDFA(DFA dfa) {
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(dfa);
+        try {
+            return (MultiStreamDFA) Class.forName(VECTOR_CLASS)
+                    .getDeclaredConstructor(CompiledDFA.class)
+                    .newInstance(compiled);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not built, or the jdk.incubator.vector module was not added at runtime
+            return new MultiStreamDFA(compiled);
+        }
+    }
+
+    boolean[] matchAll(CharSequence[] inputs) {
+        boolean[] results = new boolean[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            CharSequence input = inputs[i];
+            int state = start;
+            for (int position = 0; position < input.length(); position++) {
+                state = table[state * width + getColumn(input.charAt(position))];
+            }
+            results[i] = accepting[state];
+        }
+        return results;
+    }
+
+    int getColumn(char letter) {
+        if (letter < ASCII) {
+            return asciiColumns[letter];
+        }
+        int column = Arrays.binarySearch(alphabet, letter);
+        return column < 0 ? outsideColumn : column;
+    }
+
+    static int[] getOrderByLength(CharSequence[] inputs) {
+        /* Inputs of similar lengths share a batch, so fewer lanes sit idle on the stay column.
+        A counting sort on lengths capped at LENGTH_BUCKETS keeps this linear; longer inputs
+        share the last bucket, so a batch's longest input is not always its last. */
+        int[] starts = new int[LENGTH_BUCKETS + 1];
+        for (CharSequence input : inputs) {
+            starts[Math.min(input.length(), LENGTH_BUCKETS - 1) + 1]++;
+        }
+        for (int bucket = 1; bucket <= LENGTH_BUCKETS; bucket++) {
+            starts[bucket] += starts[bucket - 1];
+        }
+
+        int[] order = new int[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            order[starts[Math.min(inputs[i].length(), LENGTH_BUCKETS - 1)]++] = i;
+        }
+        return order;
+    }
+
+    boolean isVectorized() {
+        return false;
+    }
+}
@@ -2,7 +2,8 @@ package algorithms;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collections;
+import java.util.*;
+import java.util.stream.Collectors;
 
 import static algorithms.Grammar.EPSILON;
 import static algorithms.Grammar.GREEK_EPSILON;
@@ -14,15 +15,38 @@ class NFA extends FSA {
     }
 
     static NFA regexToNFA(String infix) {
-        char[] postfix = Regex.infixToPostfix(infix).toCharArray();
+        // Redundant parts of the expression are simplified away before any state is made
+        RegexNode tree = RegexNode.parse(infix).simplify();
+        return postfixToNFA(tree.toPostfix());
+    }
+
+    static NFA regexToNFA(String infix, FragmentCache cache) {
+        // Only the subexpressions the cache has not seen yet are built
+        return cache.getNFA(infix);
+    }
+
+    static NFA regexToNFAParallel(String infix) {
+        // Large subexpressions are built on the common fork-join pool
+        return ParallelThompson.regexToNFA(infix);
+    }
+
+    static NFA postfixToNFA(String postfixString) {
+        char[] postfix = postfixString.toCharArray();
         Stack<NFA> nfaStack = new Stack<>();
         NFA result;
 
         if (postfix.length == 0) {
             result = makeSingle(EPSILON);
         } else {
-            for (char c : postfix) {
-                if (c == '.') {
+            for (int i = 0; i < postfix.length; i++) {
+                char c = postfix[i];
+                if (c == '{') {
+                    int end = Regex.findClosingBrace(postfix, i);
+                    int[] bounds = Regex.parseBounds(postfix, i, end);
+                    NFA first = nfaStack.pop();
+                    nfaStack.push(repeat(first, bounds[0], bounds[1]));
+                    i = end;
+                } else if (c == '.') {
                     NFA second = nfaStack.pop();
                     NFA first = nfaStack.pop();
                     nfaStack.push(concatenate(first, second));
@@ -165,12 +189,440 @@ class NFA extends FSA {
         }
     }
 
+    static NFA repeat(NFA first, int min, int max) {
+        /* Unrolls first{min,max} into fresh copies of first, where a max of UNBOUNDED stands for
+        first{min,}. Copies are linked in place rather than through concatenate, which would
+        clone the growing result once per copy. The optional copies are nested, as in
+        first(first(first)?)?, so a run of them never branches more than once per copy. */
+        if (max == 0) {
+            return makeSingle(EPSILON);
+        }
+
+        NFA result;
+        int copies;
+
+        if (min == 0) {
+            State start = new State();
+            result = new NFA(new Alphabet(first.alphabet), makeStates(start), start,
+                    makeStates(start), new Moves());
+            copies = 0;
+        } else {
+            result = first.copyWithFreshStates();
+            copies = 1;
+        }
+
+        for (; copies < min; copies++) {
+            result.append(first.copyWithFreshStates());
+        }
+
+        if (max == Regex.UNBOUNDED) {
+            result.append(kleeneStar(first.copyWithFreshStates()));
+            return result;
+        }
+
+        if (copies == max) {
+            return result;
+        }
+
+        State newFinal = new State();
+        States optionalFinals = new States();
+
+        for (; copies < max; copies++) {
+            optionalFinals.addAll(result.finalStates);
+            result.append(first.copyWithFreshStates());
+        }
+
+        optionalFinals.addAll(result.finalStates);
+        for (State finalState : optionalFinals) {
+            result.addMove(finalState, EPSILON, newFinal);
+        }
+        result.removeFinalStates();
+        result.addFinalState(newFinal);
+        result.addState(newFinal);
+        return result;
+    }
+
+    private void append(NFA other) {
+        connectOriginalFinalStatesToOtherStart(other);
+        removeFinalStates();
+        copyStates(other);
+        copyAlphabet(other);
+        copyMoves(other);
+        copyFinalStates(other);
+    }
+
+    private NFA copyWithFreshStates() {
+        Map<State, State> renamed = new TreeMap<>();
+        for (State state : states) {
+            renamed.put(state, new State());
+        }
+
+        States states = new States(renamed.values());
+        States finalStates = this.finalStates
+                .stream()
+                .map(renamed::get)
+                .collect(Collectors.toCollection(States::new));
+        Moves moves = this.moves
+                .stream()
+                .map(move -> new Move(renamed.get(move.getFrom()), move.getConsumed(),
+                        renamed.get(move.getTo())))
+                .collect(Collectors.toCollection(Moves::new));
+
+        return new NFA(new Alphabet(alphabet), states, renamed.get(start), finalStates, moves);
+    }
+
     private void removeEpsilonFromAlphabet() {
         alphabet.remove(EPSILON);
     }
+
+    NFA removeEpsilons() {
+        /* Every state takes over the symbol moves and finality of its epsilon closure. Closures
+        are found once per strongly connected component of the epsilon graph, sinks first, so
+        each is the union of its own states and the closures already found for its successors.
+        States that are unreachable or cannot reach a final state are trimmed afterwards. */
+        List<State> indexed = new ArrayList<>(states);
+        Map<State, Integer> indices = new TreeMap<>();
+        for (int i = 0; i < indexed.size(); i++) {
+            indices.put(indexed.get(i), i);
+        }
+
+        List<List<Integer>> epsilonSuccessors = new ArrayList<>();
+        List<List<Move>> symbolMoves = new ArrayList<>();
+        for (int i = 0; i < indexed.size(); i++) {
+            epsilonSuccessors.add(new ArrayList<>());
+            symbolMoves.add(new ArrayList<>());
+        }
+
+        for (Move move : moves) {
+            int from = indices.get(move.getFrom());
+            if (move.hasConsumed(EPSILON)) {
+                epsilonSuccessors.get(from).add(indices.get(move.getTo()));
+            } else {
+                symbolMoves.get(from).add(move);
+            }
+        }
+
+        BitSet[] closures = getEpsilonClosures(epsilonSuccessors);
+        States newFinalStates = new States();
+        Moves newMoves = new Moves();
+
+        for (int i = 0; i < indexed.size(); i++) {
+            State from = indexed.get(i);
+            BitSet closure = closures[i];
+
+            for (int j = closure.nextSetBit(0); j >= 0; j = closure.nextSetBit(j + 1)) {
+                if (finalStates.contains(indexed.get(j))) {
+                    newFinalStates.add(from);
+                }
+                for (Move move : symbolMoves.get(j)) {
+                    newMoves.add(new Move(from, move.getConsumed(), move.getTo()));
+                }
+            }
+        }
+
+        NFA result = new NFA(new Alphabet(alphabet), new States(states), start, newFinalStates,
+                newMoves);
+        result.removeEpsilonFromAlphabet();
+        result.trim();
+        return result;
+    }
+
+    @NotNull
+    static BitSet[] getEpsilonClosures(List<List<Integer>> epsilonSuccessors) {
+        int[] components = StronglyConnectedComponents.find(epsilonSuccessors);
+        int componentCount = Arrays.stream(components).max().orElse(-1) + 1;
+        int stateCount = components.length;
+
+        BitSet[] componentClosures = new BitSet[componentCount];
+        for (int c = 0; c < componentCount; c++) {
+            componentClosures[c] = new BitSet(stateCount);
+        }
+
+        List<List<Integer>> members = new ArrayList<>();
+        for (int c = 0; c < componentCount; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = 0; i < stateCount; i++) {
+            members.get(components[i]).add(i);
+        }
+
+        // Components are numbered sinks first, so successors are always finished
+        for (int c = 0; c < componentCount; c++) {
+            BitSet closure = componentClosures[c];
+            for (int from : members.get(c)) {
+                closure.set(from);
+                for (int to : epsilonSuccessors.get(from)) {
+                    if (components[to] != c) {
+                        closure.or(componentClosures[components[to]]);
+                    }
+                }
+            }
+        }
+
+        BitSet[] closures = new BitSet[stateCount];
+        for (int i = 0; i < stateCount; i++) {
+            closures[i] = componentClosures[components[i]];
+        }
+        return closures;
+    }
+
+    private void trim() {
+        States reachable = getConnectedStates(makeStates(start), false);
+        States useful = getConnectedStates(finalStates, true);
+
+        // The start state stays even when the language is empty
+        states.removeIf(state -> !state.equals(start)
+                && !(reachable.contains(state) && useful.contains(state)));
+        finalStates.retainAll(states);
+        moves.removeIf(move -> !states.contains(move.getFrom())
+                || !states.contains(move.getTo()));
+    }
+
+    private States getConnectedStates(States origins, boolean backwards) {
+        Map<State, States> neighbours = new TreeMap<>();
+        for (Move move : moves) {
+            State from = backwards ? move.getTo() : move.getFrom();
+            State to = backwards ? move.getFrom() : move.getTo();
+            neighbours.computeIfAbsent(from, k -> new States()).add(to);
+        }
+
+        Stack<State> stack = new Stack<>(origins);
+        States connected = new States(origins);
+
+        while (!stack.isEmpty()) {
+            State from = stack.pop();
+            for (State to : neighbours.getOrDefault(from, new States())) {
+                if (!connected.contains(to)) {
+                    connected.add(to);
+                    stack.push(to);
+                }
+            }
+        }
+        return connected;
+    }
+
+    static NFA reverse(FSA fsa) {
+        /* Accepts the reverse of every word fsa accepts. A new start state reaches every old
+        final state through epsilon moves, every move points the other way, and the old start is
+        the only final state. The phi state of a DFA cannot reach a final state, so it is left
+        out. The automaton may come from a DFA whose ids restart at 0, so the new start takes
+        the next id after the largest one instead of one from the shared counter. */
+        State phi = fsa instanceof DFA ? ((DFA) fsa).getPhi() : null;
+        States states = fsa.states
+                .stream()
+                .filter(state -> phi == null || state.getId() != phi.getId())
+                .collect(Collectors.toCollection(States::new));
+
+        State start = new State(fsa.states.last().getId() + 1);
+        states.add(start);
+
+        Moves moves = new Moves();
+        for (Move move : fsa.moves) {
+            if (states.contains(move.getFrom()) && states.contains(move.getTo())) {
+                moves.add(new Move(move.getTo(), move.getConsumed(), move.getFrom()));
+            }
+        }
+        for (State finalState : fsa.finalStates) {
+            moves.add(new Move(start, EPSILON, finalState));
+        }
+
+        NFA result = new NFA(new Alphabet(fsa.alphabet), states, start, makeStates(fsa.start),
+                moves);
+        result.removeEpsilonFromAlphabet();
+        return result;
+    }
+
+    NFA makeUnanchored() {
+        // Accepts every word that ends with a word this NFA accepts
+        State newStart = new State(states.last().getId() + 1);
+        NFA result = deepClone();
+        result.addState(newStart);
+        result.addMove(newStart, EPSILON, start);
+        for (Character consumed : alphabet) {
+            result.addMove(newStart, consumed, newStart);
+        }
+        result.setStart(newStart);
+        return result;
+    }
+
+    NFA reduceByBisimulation() {
+        /* Merges states that no word can tell apart, first looking forwards at what they go on to
+        accept, then backwards at how they can be reached. Each pass is a partition refinement
+        in the style of DFA.getPartition, except that an NFA state may move to several blocks on
+        one letter, so a state is split off by the whole set of blocks it can move to. */
+        NFA forward = quotient(getBisimulation(false));
+        return forward.quotient(forward.getBisimulation(true));
+    }
+
+    @NotNull
+    Partition getBisimulation(boolean backwards) {
+        // Looking forwards, final states differ from the rest; looking backwards, the start does
+        PSet distinguished = backwards ? new PSet(makeStates(start)) : new PSet(finalStates);
+        PSet rest = new PSet(states);
+        rest.removeAll(distinguished);
+
+        Partition partition = makePartition(distinguished, rest);
+        partition.removeIf(Collection::isEmpty);
+
+        Map<State, Moves> neighbours = new TreeMap<>();
+        for (Move move : moves) {
+            State from = backwards ? move.getTo() : move.getFrom();
+            State to = backwards ? move.getFrom() : move.getTo();
+            neighbours
+                    .computeIfAbsent(from, k -> new Moves())
+                    .add(new Move(from, move.getConsumed(), to));
+        }
+
+        while (true) {
+            Map<State, Integer> blocks = new TreeMap<>();
+            int index = 0;
+            for (PSet set : partition) {
+                for (State state : set) {
+                    blocks.put(state, index);
+                }
+                index++;
+            }
+
+            Partition refined = new Partition();
+            for (PSet set : partition) {
+                Map<Set<String>, PSet> bySignature = new HashMap<>();
+
+                for (State state : set) {
+                    Set<String> signature = neighbours
+                            .getOrDefault(state, new Moves())
+                            .stream()
+                            .map(move -> move.getConsumed() + " " + blocks.get(move.getTo()))
+                            .collect(Collectors.toCollection(TreeSet::new));
+                    bySignature.computeIfAbsent(signature, k -> new PSet()).add(state);
+                }
+                refined.addAll(bySignature.values());
+            }
+
+            if (refined.size() == partition.size()) {
+                return partition;
+            }
+            partition = refined;
+        }
+    }
+
+    private NFA quotient(Partition partition) {
+        // Each set of the partition is represented by its state with the lowest id
+        Map<State, State> representatives = new TreeMap<>();
+        for (PSet set : partition) {
+            for (State state : set) {
+                representatives.put(state, set.first());
+            }
+        }
+
+        States newStates = new States(representatives.values());
+        States newFinalStates = finalStates
+                .stream()
+                .map(representatives::get)
+                .collect(Collectors.toCollection(States::new));
+        Moves newMoves = new Moves();
+
+        for (Move move : moves) {
+            State from = representatives.get(move.getFrom());
+            State to = representatives.get(move.getTo());
+            boolean isEpsilonLoop = move.hasConsumed(EPSILON) && from.equals(to);
+
+            if (!isEpsilonLoop) {
+                newMoves.add(new Move(from, move.getConsumed(), to));
+            }
+        }
+
+        return new NFA(new Alphabet(alphabet), newStates, representatives.get(start),
+                newFinalStates, newMoves);
+    }
+
+    boolean accepts(String input) {
+        States current = DFA.epsilonClosure(makeStates(start), moves, 0).getStates();
+
+        for (char consumed : input.toCharArray()) {
+            States next = new States();
+            for (Move move : moves) {
+                if (move.hasConsumed(consumed) && current.contains(move.getFrom())) {
+                    next.add(move.getTo());
+                }
+            }
+            current = DFA.epsilonClosure(next, moves, 0).getStates();
+        }
+
+        return current.stream().anyMatch(finalStates::contains);
+    }
+}
+
+class StronglyConnectedComponents {
+    /* Tarjan's algorithm over a graph given as successor lists. Components are numbered in the
+    order they are completed, which puts every component after all of its successors. The
+    recursion is kept on an explicit stack so that long chains cannot overflow the call stack. */
+    static int[] find(List<List<Integer>> successors) {
+        int size = successors.size();
+        int[] order = new int[size];
+        int[] lowLink = new int[size];
+        int[] nextSuccessor = new int[size];
+        int[] components = new int[size];
+        boolean[] onStack = new boolean[size];
+        Arrays.fill(order, -1);
+
+        Stack<Integer> visited = new Stack<>();
+        Stack<Integer> path = new Stack<>();
+        int counter = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < size; root++) {
+            if (order[root] != -1) {
+                continue;
+            }
+
+            order[root] = lowLink[root] = counter++;
+            visited.push(root);
+            onStack[root] = true;
+            path.push(root);
+
+            while (!path.isEmpty()) {
+                int from = path.peek();
+                List<Integer> tos = successors.get(from);
+
+                if (nextSuccessor[from] < tos.size()) {
+                    int to = tos.get(nextSuccessor[from]++);
+
+                    if (order[to] == -1) {
+                        order[to] = lowLink[to] = counter++;
+                        visited.push(to);
+                        onStack[to] = true;
+                        path.push(to);
+                    } else if (onStack[to]) {
+                        lowLink[from] = Math.min(lowLink[from], order[to]);
+                    }
+                    continue;
+                }
+
+                path.pop();
+                if (!path.isEmpty()) {
+                    int parent = path.peek();
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[from]);
+                }
+
+                if (lowLink[from] == order[from]) {
+                    int member;
+                    do {
+                        member = visited.pop();
+                        onStack[member] = false;
+                        components[member] = componentCount;
+                    } while (member != from);
+                    componentCount++;
+                }
+            }
+        }
+
+        return components;
+    }
 }
 
 class Regex {
+    static final int UNBOUNDED = -1;
+
     static String infixToPostfix(String infix) {
         // We just want to handle one type of Epsilon
         infix = infix.replaceAll(GREEK_EPSILON, EPSILON);
@@ -185,6 +637,16 @@ class Regex {
 
         for (int i = 0; i < limit; i++) {
             temp.add(infix[i]);
+
+            // The bounds of a repetition are copied as is
+            if (infix[i] == '{') {
+                int end = findClosingBrace(infix, i);
+                for (int j = i + 1; j <= end; j++) {
+                    temp.add(infix[j]);
+                }
+                i = end;
+            }
+
             if (canConcatenate(infix, limit, i)) {
                 temp.add('.');
             }
@@ -200,8 +662,10 @@ class Regex {
             boolean isCurrentAnOperand = isOperand(current);
             boolean isCurrentARightParenthesis = isRightParenthesis(current);
             boolean isCurrentAStar = isStar(current);
+            boolean isCurrentARepetition = isRightBrace(current);
             char next = infixArray[index + 1];
-            if (isCurrentAnOperand || isCurrentARightParenthesis || isCurrentAStar) {
+            if (isCurrentAnOperand || isCurrentARightParenthesis || isCurrentAStar
+                    || isCurrentARepetition) {
                 boolean isNextAnOperand = isOperand(next);
                 boolean isNextALeftParenthesis = isLeftParenthesis(next);
                 return (isNextAnOperand || isNextALeftParenthesis);
@@ -214,6 +678,52 @@ class Regex {
         return token == '*';
     }
 
+    private static boolean isLeftBrace(Character token) {
+        return token == '{';
+    }
+
+    private static boolean isRightBrace(Character token) {
+        return token == '}';
+    }
+
+    static int findClosingBrace(char[] infix, int start) {
+        for (int i = start + 1; i < infix.length; i++) {
+            if (isRightBrace(infix[i])) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unclosed repetition in " + new String(infix));
+    }
+
+    static int[] parseBounds(char[] infix, int start, int end) {
+        // Accepts {n}, {n,} and {n,m}, returning {min, max} with UNBOUNDED for a missing max
+        String bounds = new String(infix, start + 1, end - start - 1);
+        String[] parts = bounds.split(",", -1);
+
+        try {
+            int min = Integer.parseInt(parts[0].trim());
+            int max;
+
+            if (parts.length == 1) {
+                max = min;
+            } else if (parts.length == 2 && parts[1].isBlank()) {
+                max = UNBOUNDED;
+            } else if (parts.length == 2) {
+                max = Integer.parseInt(parts[1].trim());
+            } else {
+                throw new NumberFormatException();
+            }
+
+            if (min < 0 || (max != UNBOUNDED && max < min)) {
+                throw new NumberFormatException();
+            }
+            return new int[]{min, max};
+
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid repetition {" + bounds + "}");
+        }
+    }
+
     @NotNull
     private static String generateInfixString(Queue<Character> input) {
         StringBuilder sb = new StringBuilder();
@@ -228,8 +738,22 @@ class Regex {
         Stack<Character> postfix = new Stack<>();
         Stack<Character> operators = new Stack<>();
 
-        for (char token : infix) {
-            if (isOperand(token)) {
+        for (int i = 0; i < infix.length; i++) {
+            char token = infix[i];
+
+            if (isLeftBrace(token)) {
+                /* A repetition binds as tightly as *, and applies to the operand just output,
+                so it goes straight to the output. A * still waiting on the stack applies to
+                that operand first, so it is output before the braces. */
+                while (operators.peek() != null && isStar(operators.peek())) {
+                    postfix.push(operators.pop());
+                }
+                int end = findClosingBrace(infix, i);
+                for (int j = i; j <= end; j++) {
+                    postfix.push(infix[j]);
+                }
+                i = end;
+            } else if (isOperand(token)) {
                 handleOperand(postfix, token);
             } else if (isOperator(token)) {
                 handleOperator(postfix, operators, token);
@@ -245,7 +769,8 @@ class Regex {
     }
 
     private static boolean isOperand(char c) {
-        return !(isOperator(c) || isLeftParenthesis(c) || isRightParenthesis(c));
+        return !(isOperator(c) || isLeftParenthesis(c) || isRightParenthesis(c)
+                || isLeftBrace(c) || isRightBrace(c));
     }
 
     private static void handleOperand(Stack<Character> postfix, char token) {
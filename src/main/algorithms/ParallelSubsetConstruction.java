@@ -0,0 +1,232 @@
+package algorithms;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static algorithms.FSA.EPSILON;
+
+class ParallelSubsetConstruction {
+    /* Level-synchronous subset construction. Every subset in the frontier is expanded on every
+    letter in parallel, and workers that reach equal subsets agree on one copy of it through a
+    concurrent map. Ids are then handed out in one sequential pass over the frontier in id
+    order, letters in order, so the DFA is the same however the work was scheduled. Subsets
+    are bitsets over the NFA's states, and epsilon closures are found once per NFA state. */
+    private final List<State> nfaStates;
+    private final char[] alphabet;
+    private final BitSet[] closures;
+    private final BitSet finals;
+    private final int start;
+
+    // The NFA states each state moves to on each letter of the alphabet
+    private final int[][][] successors;
+
+    ParallelSubsetConstruction(NFA nfa) {
+        nfaStates = new ArrayList<>(nfa.getStates());
+        Map<State, Integer> indices = new TreeMap<>();
+        for (int i = 0; i < nfaStates.size(); i++) {
+            indices.put(nfaStates.get(i), i);
+        }
+
+        Alphabet letters = new Alphabet(nfa.alphabet);
+        letters.remove(EPSILON);
+        alphabet = new char[letters.size()];
+        int column = 0;
+        for (Character letter : letters) {
+            alphabet[column++] = letter;
+        }
+
+        List<List<Integer>> epsilonSuccessors = new ArrayList<>();
+        List<List<List<Integer>>> letterSuccessors = new ArrayList<>();
+        for (int i = 0; i < nfaStates.size(); i++) {
+            epsilonSuccessors.add(new ArrayList<>());
+            List<List<Integer>> byColumn = new ArrayList<>();
+            for (int c = 0; c < alphabet.length; c++) {
+                byColumn.add(new ArrayList<>());
+            }
+            letterSuccessors.add(byColumn);
+        }
+
+        for (Move move : nfa.getMoves()) {
+            int from = indices.get(move.getFrom());
+            int to = indices.get(move.getTo());
+            if (move.hasConsumed(EPSILON)) {
+                epsilonSuccessors.get(from).add(to);
+            } else {
+                int c = Arrays.binarySearch(alphabet, move.getConsumed());
+                letterSuccessors.get(from).get(c).add(to);
+            }
+        }
+
+        successors = new int[nfaStates.size()][alphabet.length][];
+        for (int i = 0; i < nfaStates.size(); i++) {
+            for (int c = 0; c < alphabet.length; c++) {
+                successors[i][c] = letterSuccessors.get(i).get(c).stream()
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+
+        closures = NFA.getEpsilonClosures(epsilonSuccessors);
+        finals = new BitSet(nfaStates.size());
+        for (State finalState : nfa.getFinalStates()) {
+            finals.set(indices.get(finalState));
+        }
+        start = indices.get(nfa.start);
+    }
+
+    // The subset of each DFA state and its row of moves, by id, once explored
+    private final List<BitSet> subsets = new ArrayList<>();
+    private final List<int[]> rows = new ArrayList<>();
+
+    DFA build() {
+        explore();
+        return createDFA();
+    }
+
+    CompiledDFA buildCompiledDFA() {
+        // The rows already form the table of a CompiledDFA, whose dead entries stay dead
+        explore();
+        int[] table = new int[rows.size() * alphabet.length];
+        boolean[] accepting = new boolean[subsets.size()];
+        for (int id = 0; id < rows.size(); id++) {
+            System.arraycopy(rows.get(id), 0, table, id * alphabet.length, alphabet.length);
+            accepting[id] = subsets.get(id).intersects(finals);
+        }
+        return new CompiledDFA(alphabet.clone(), table, accepting, 0);
+    }
+
+    int[] getLeastRanks(Map<State, Integer> ranks, int none) {
+        // For each DFA state, the least rank of the NFA states in its subset that have one
+        explore();
+        int[] leastRanks = new int[subsets.size()];
+        for (int id = 0; id < subsets.size(); id++) {
+            BitSet subset = subsets.get(id);
+            leastRanks[id] = none;
+            for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+                Integer rank = ranks.get(nfaStates.get(i));
+                if (rank != null && (leastRanks[id] == none || rank < leastRanks[id])) {
+                    leastRanks[id] = rank;
+                }
+            }
+        }
+        return leastRanks;
+    }
+
+    private void explore() {
+        if (!subsets.isEmpty()) {
+            return;
+        }
+
+        ConcurrentHashMap<BitSet, BitSet> canonical = new ConcurrentHashMap<>();
+        BitSet startSubset = (BitSet) closures[start].clone();
+        canonical.put(startSubset, startSubset);
+
+        // Keyed by the canonical copy, so lookups never hash a whole bitset again
+        Map<BitSet, Integer> ids = new IdentityHashMap<>();
+        ids.put(startSubset, 0);
+        subsets.add(startSubset);
+        rows.add(null);
+
+        List<Integer> frontier = Collections.singletonList(0);
+        while (!frontier.isEmpty()) {
+            List<BitSet[]> expanded = frontier
+                    .parallelStream()
+                    .map(id -> expand(subsets.get(id), canonical))
+                    .collect(Collectors.toList());
+
+            List<Integer> next = new ArrayList<>();
+            for (int k = 0; k < frontier.size(); k++) {
+                BitSet[] targets = expanded.get(k);
+                int[] row = new int[alphabet.length];
+
+                for (int c = 0; c < alphabet.length; c++) {
+                    if (targets[c] == null) {
+                        row[c] = CompiledDFA.DEAD;
+                        continue;
+                    }
+
+                    Integer id = ids.get(targets[c]);
+                    if (id == null) {
+                        id = subsets.size();
+                        ids.put(targets[c], id);
+                        subsets.add(targets[c]);
+                        rows.add(null);
+                        next.add(id);
+                    }
+                    row[c] = id;
+                }
+                rows.set(frontier.get(k), row);
+            }
+            frontier = next;
+        }
+    }
+
+    private BitSet[] expand(BitSet subset, ConcurrentHashMap<BitSet, BitSet> canonical) {
+        BitSet[] targets = new BitSet[alphabet.length];
+
+        for (int c = 0; c < alphabet.length; c++) {
+            BitSet target = new BitSet(nfaStates.size());
+            for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+                for (int to : successors[i][c]) {
+                    target.or(closures[to]);
+                }
+            }
+
+            if (!target.isEmpty()) {
+                BitSet existing = canonical.putIfAbsent(target, target);
+                targets[c] = existing != null ? existing : target;
+            }
+        }
+
+        return targets;
+    }
+
+    private DFA createDFA() {
+        // As in DFA.NFAtoDFA, a phi state is only added when some move is missing
+        State[] states = new State[subsets.size()];
+        States finalStates = new States();
+
+        for (int id = 0; id < subsets.size(); id++) {
+            BitSet subset = subsets.get(id);
+            int[] members = subset
+                    .stream()
+                    .map(index -> nfaStates.get(index).getId())
+                    .toArray();
+
+            states[id] = new State(id, members);
+            if (subset.intersects(finals)) {
+                finalStates.add(states[id]);
+            }
+        }
+
+        State phi = new State(subsets.size());
+        boolean needsPhi = false;
+        Moves moves = new Moves();
+
+        for (int id = 0; id < subsets.size(); id++) {
+            int[] row = rows.get(id);
+            for (int c = 0; c < alphabet.length; c++) {
+                boolean isMissing = row[c] == CompiledDFA.DEAD;
+                needsPhi |= isMissing;
+                moves.add(new Move(states[id], alphabet[c], isMissing ? phi : states[row[c]]));
+            }
+        }
+
+        States allStates = new States(Arrays.asList(states));
+        Alphabet dfaAlphabet = new Alphabet();
+        for (char letter : alphabet) {
+            dfaAlphabet.add(letter);
+        }
+
+        if (!needsPhi) {
+            return new DFA(dfaAlphabet, allStates, states[0], finalStates, moves);
+        }
+
+        allStates.add(phi);
+        for (char letter : alphabet) {
+            moves.add(new Move(phi, letter, phi));
+        }
+        return new DFA(dfaAlphabet, allStates, states[0], finalStates, moves, phi);
+    }
+}
@@ -0,0 +1,146 @@
+package algorithms;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+class ParallelThompson {
+    /* Thompson's construction of a simplified regex tree, with large subtrees built as fork-join
+    tasks. A task builds a Fragment, whose states are numbered from 0, so tasks never contend
+    for the shared State id counter. A parent lays its children's fragments side by side,
+    which shifts each child into its own range of ids, and only the finished fragment takes real
+    states. Subtrees of fewer than THRESHOLD nodes are not worth a task and are built by the
+    task that reaches them. */
+    static final int THRESHOLD = 256;
+
+    static NFA regexToNFA(String infix) {
+        return regexToNFA(infix, ForkJoinPool.commonPool());
+    }
+
+    static NFA regexToNFA(String infix, ForkJoinPool pool) {
+        RegexNode tree = RegexNode.parse(infix).simplify();
+        Map<RegexNode, Integer> sizes = new IdentityHashMap<>();
+        tree.accept(new RegexSizes(sizes));
+        return pool.invoke(new FragmentTask(tree, sizes)).toNFA();
+    }
+}
+
+class FragmentTask extends RecursiveTask<Fragment> implements RegexVisitor<Fragment> {
+    private final RegexNode node;
+    private final Map<RegexNode, Integer> sizes;
+
+    FragmentTask(RegexNode node, Map<RegexNode, Integer> sizes) {
+        this.node = node;
+        this.sizes = sizes;
+    }
+
+    @Override
+    protected Fragment compute() {
+        return node.accept(this);
+    }
+
+    private List<Fragment> buildAll(List<RegexNode> children) {
+        // Large children are forked; the rest are built here while the forked ones run
+        List<FragmentTask> tasks = new ArrayList<>();
+        for (RegexNode child : children) {
+            FragmentTask task = new FragmentTask(child, sizes);
+            if (sizes.get(child) >= ParallelThompson.THRESHOLD) {
+                task.fork();
+            }
+            tasks.add(task);
+        }
+
+        List<Fragment> fragments = new ArrayList<>();
+        for (FragmentTask task : tasks) {
+            boolean isForked = sizes.get(task.node) >= ParallelThompson.THRESHOLD;
+            fragments.add(isForked ? task.join() : task.compute());
+        }
+        return fragments;
+    }
+
+    private Fragment build(RegexNode child) {
+        return buildAll(Collections.singletonList(child)).get(0);
+    }
+
+    @Override
+    public Fragment visitSymbol(RegexSymbol node) {
+        return Fragment.symbol(node.getConsumed());
+    }
+
+    @Override
+    public Fragment visitConcatenation(RegexConcatenation node) {
+        return Fragment.concatenate(buildAll(node.getChildren()));
+    }
+
+    @Override
+    public Fragment visitAlternation(RegexAlternation node) {
+        return Fragment.alternate(buildAll(node.getChildren()));
+    }
+
+    @Override
+    public Fragment visitStar(RegexStar node) {
+        return Fragment.star(build(node.getChild()));
+    }
+
+    @Override
+    public Fragment visitGroup(RegexGroup node) {
+        return build(node.getChild());
+    }
+
+    @Override
+    public Fragment visitRepetition(RegexRepetition node) {
+        return Fragment.repeat(build(node.getChild()), node.getMin(), node.getMax());
+    }
+}
+
+class RegexSizes implements RegexVisitor<Integer> {
+    // Counts the nodes of every subtree, so that tasks can tell large children from small ones
+    private final Map<RegexNode, Integer> sizes;
+
+    RegexSizes(Map<RegexNode, Integer> sizes) {
+        this.sizes = sizes;
+    }
+
+    private int record(RegexNode node, int size) {
+        sizes.put(node, size);
+        return size;
+    }
+
+    private int sumAll(List<RegexNode> children) {
+        int sum = 0;
+        for (RegexNode child : children) {
+            sum += child.accept(this);
+        }
+        return sum;
+    }
+
+    @Override
+    public Integer visitSymbol(RegexSymbol node) {
+        return record(node, 1);
+    }
+
+    @Override
+    public Integer visitConcatenation(RegexConcatenation node) {
+        return record(node, 1 + sumAll(node.getChildren()));
+    }
+
+    @Override
+    public Integer visitAlternation(RegexAlternation node) {
+        return record(node, 1 + sumAll(node.getChildren()));
+    }
+
+    @Override
+    public Integer visitStar(RegexStar node) {
+        return record(node, 1 + node.getChild().accept(this));
+    }
+
+    @Override
+    public Integer visitGroup(RegexGroup node) {
+        return record(node, 1 + node.getChild().accept(this));
+    }
+
+    @Override
+    public Integer visitRepetition(RegexRepetition node) {
+        return record(node, 1 + node.getChild().accept(this));
+    }
+}
@@ -0,0 +1,336 @@
+package algorithms;
+
+import java.util.*;
+
+class PartialDFAMinimizer {
+    /* Valmari and Lehtinen's minimization of a partial DFA, in O(m log n) time for m moves and n
+    states. States without a way to a final state are removed rather than merged into phi, so
+    the dead state stays implicit and no move is ever added. Two refinable partitions are kept
+    in step: blocks of states, and cords of moves that share a letter and a block of targets.
+    Splitting one splits the other, until neither changes. This follows Valmari's "Fast brief
+    practical DFA minimization" closely, down to the names of the arrays. */
+    private final List<State> original;
+    private final Map<Integer, Integer> indices;
+    private final int stateCount;
+    private int moveCount;
+
+    // Tail, label and head of each move
+    private final int[] tails;
+    private final char[] labels;
+    private final int[] heads;
+    private final int start;
+    private final int[] finals;
+
+    // Moves grouped by the state they are adjacent to, as in a compressed sparse row
+    private final int[] adjacent;
+    private final int[] offsets;
+
+    // Shared by both partitions: how many elements of each set are marked, and which sets are
+    private final int[] marked;
+    private final int[] touched;
+    private int touchedCount;
+
+    private final RefinablePartition blocks;
+    private RefinablePartition cords;
+    private int reachedCount;
+
+    PartialDFAMinimizer(DFA dfa) {
+        indices = ByteDFA.getDenseIndices(dfa);
+        original = new ArrayList<>(Collections.nCopies(indices.size(), null));
+        for (State state : dfa.getStates()) {
+            Integer index = indices.get(state.getId());
+            if (index != null) {
+                original.set(index, state);
+            }
+        }
+        stateCount = indices.size();
+
+        List<Move> moves = new ArrayList<>();
+        for (Move move : dfa.getMoves()) {
+            if (indices.containsKey(move.getFrom().getId())
+                    && indices.containsKey(move.getTo().getId())) {
+                moves.add(move);
+            }
+        }
+
+        moveCount = moves.size();
+        tails = new int[moveCount];
+        labels = new char[moveCount];
+        heads = new int[moveCount];
+        for (int t = 0; t < moveCount; t++) {
+            Move move = moves.get(t);
+            tails[t] = indices.get(move.getFrom().getId());
+            labels[t] = move.getConsumed();
+            heads[t] = indices.get(move.getTo().getId());
+        }
+
+        start = indices.get(dfa.start.getId());
+        finals = dfa.getFinalStates()
+                .stream()
+                .map(state -> indices.get(state.getId()))
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        adjacent = new int[moveCount];
+        offsets = new int[stateCount + 1];
+        marked = new int[Math.max(stateCount, moveCount) + 1];
+        touched = new int[Math.max(stateCount, moveCount) + 1];
+        blocks = new RefinablePartition(stateCount);
+    }
+
+    DFA minimize() {
+        // Keep only the states that are reachable and from which a final state is reachable
+        reach(start);
+        removeUnreachable(tails, heads);
+
+        for (int finalState : finals) {
+            if (blocks.locations[finalState] < blocks.ends[0]) {
+                reach(finalState);
+            }
+        }
+        int finalCount = reachedCount;
+        removeUnreachable(heads, tails);
+
+        boolean isEmptyLanguage = blocks.locations[start] >= blocks.ends[0];
+        if (isEmptyLanguage) {
+            State onlyState = new State(0, new States(Collections.singleton(original.get(start))));
+            return new DFA(new Alphabet(), new States(Collections.singleton(onlyState)),
+                    onlyState, new States(), new Moves());
+        }
+
+        // Final states were reached first, so they lead the only block
+        marked[0] = finalCount;
+        if (finalCount > 0) {
+            touched[touchedCount++] = 0;
+            blocks.split();
+        }
+
+        initializeCords();
+        makeAdjacent(heads);
+
+        int block = 1;
+        int cord = 0;
+        while (cord < cords.count) {
+            for (int i = cords.firsts[cord]; i < cords.ends[cord]; i++) {
+                blocks.mark(tails[cords.elements[i]]);
+            }
+            blocks.split();
+            cord++;
+
+            while (block < blocks.count) {
+                for (int i = blocks.firsts[block]; i < blocks.ends[block]; i++) {
+                    int state = blocks.elements[i];
+                    for (int j = offsets[state]; j < offsets[state + 1]; j++) {
+                        cords.mark(adjacent[j]);
+                    }
+                }
+                cords.split();
+                block++;
+            }
+        }
+
+        return createDFAFromBlocks(finalCount);
+    }
+
+    private void initializeCords() {
+        // Moves start out grouped by letter alone
+        cords = new RefinablePartition(moveCount);
+        if (moveCount == 0) {
+            return;
+        }
+
+        Integer[] sorted = new Integer[moveCount];
+        for (int t = 0; t < moveCount; t++) {
+            sorted[t] = t;
+        }
+        Arrays.sort(sorted, Comparator.comparing(t -> labels[t]));
+
+        cords.count = 0;
+        marked[0] = 0;
+        char label = labels[sorted[0]];
+
+        for (int i = 0; i < moveCount; i++) {
+            int t = sorted[i];
+            if (labels[t] != label) {
+                label = labels[t];
+                cords.ends[cords.count++] = i;
+                cords.firsts[cords.count] = i;
+                marked[cords.count] = 0;
+            }
+            cords.elements[i] = t;
+            cords.sets[t] = cords.count;
+            cords.locations[t] = i;
+        }
+        cords.ends[cords.count++] = moveCount;
+    }
+
+    private void makeAdjacent(int[] keys) {
+        Arrays.fill(offsets, 0);
+        for (int t = 0; t < moveCount; t++) {
+            offsets[keys[t]]++;
+        }
+        for (int q = 0; q < stateCount; q++) {
+            offsets[q + 1] += offsets[q];
+        }
+        for (int t = moveCount - 1; t >= 0; t--) {
+            adjacent[--offsets[keys[t]]] = t;
+        }
+    }
+
+    private void reach(int state) {
+        // Reached states are gathered at the front of the first block
+        int i = blocks.locations[state];
+        if (i >= reachedCount) {
+            blocks.elements[i] = blocks.elements[reachedCount];
+            blocks.locations[blocks.elements[i]] = i;
+            blocks.elements[reachedCount] = state;
+            blocks.locations[state] = reachedCount++;
+        }
+    }
+
+    private void removeUnreachable(int[] froms, int[] tos) {
+        makeAdjacent(froms);
+        for (int i = 0; i < reachedCount; i++) {
+            int state = blocks.elements[i];
+            for (int j = offsets[state]; j < offsets[state + 1]; j++) {
+                reach(tos[adjacent[j]]);
+            }
+        }
+
+        int kept = 0;
+        for (int t = 0; t < moveCount; t++) {
+            if (blocks.locations[froms[t]] < reachedCount) {
+                heads[kept] = heads[t];
+                labels[kept] = labels[t];
+                tails[kept] = tails[t];
+                kept++;
+            }
+        }
+
+        moveCount = kept;
+        blocks.ends[0] = reachedCount;
+        reachedCount = 0;
+    }
+
+    private DFA createDFAFromBlocks(int finalCount) {
+        // States are numbered breadth first from the start, following letters in order
+        List<TreeMap<Character, Integer>> outgoing = new ArrayList<>();
+        for (int b = 0; b < blocks.count; b++) {
+            outgoing.add(new TreeMap<>());
+        }
+        for (int t = 0; t < moveCount; t++) {
+            outgoing.get(blocks.sets[tails[t]]).put(labels[t], blocks.sets[heads[t]]);
+        }
+
+        int[] ids = new int[blocks.count];
+        Arrays.fill(ids, -1);
+        List<Integer> order = new ArrayList<>();
+        int startBlock = blocks.sets[start];
+        ids[startBlock] = 0;
+        order.add(startBlock);
+
+        for (int i = 0; i < order.size(); i++) {
+            for (int to : outgoing.get(order.get(i)).values()) {
+                if (ids[to] == -1) {
+                    ids[to] = order.size();
+                    order.add(to);
+                }
+            }
+        }
+
+        State[] states = new State[blocks.count];
+        States finalStates = new States();
+        for (int b : order) {
+            States members = new States();
+            for (int i = blocks.firsts[b]; i < blocks.ends[b]; i++) {
+                members.add(original.get(blocks.elements[i]));
+            }
+
+            states[b] = new State(ids[b], members);
+            if (blocks.firsts[b] < finalCount) {
+                finalStates.add(states[b]);
+            }
+        }
+
+        Alphabet alphabet = new Alphabet();
+        Moves moves = new Moves();
+        for (int b : order) {
+            for (Map.Entry<Character, Integer> entry : outgoing.get(b).entrySet()) {
+                alphabet.add(entry.getKey());
+                moves.add(new Move(states[b], entry.getKey(), states[entry.getValue()]));
+            }
+        }
+
+        return new DFA(alphabet, new States(Arrays.asList(states)), states[startBlock],
+                finalStates, moves);
+    }
+
+    private class RefinablePartition {
+        /* Elements of a set lie together in elements, from firsts up to ends; marked elements
+        of a set are moved to its front. locations is the inverse of elements. */
+        int count;
+        final int[] elements;
+        final int[] locations;
+        final int[] sets;
+        final int[] firsts;
+        final int[] ends;
+
+        RefinablePartition(int size) {
+            count = size > 0 ? 1 : 0;
+            elements = new int[size];
+            locations = new int[size];
+            sets = new int[size];
+            firsts = new int[size + 1];
+            ends = new int[size + 1];
+
+            for (int i = 0; i < size; i++) {
+                elements[i] = locations[i] = i;
+            }
+            if (count > 0) {
+                ends[0] = size;
+            }
+        }
+
+        void mark(int element) {
+            int set = sets[element];
+            int i = locations[element];
+            int j = firsts[set] + marked[set];
+
+            elements[i] = elements[j];
+            locations[elements[i]] = i;
+            elements[j] = element;
+            locations[element] = j;
+
+            if (marked[set]++ == 0) {
+                touched[touchedCount++] = set;
+            }
+        }
+
+        void split() {
+            // The smaller half becomes the new set, which keeps the whole run O(m log n)
+            while (touchedCount > 0) {
+                int set = touched[--touchedCount];
+                int j = firsts[set] + marked[set];
+
+                if (j == ends[set]) {
+                    marked[set] = 0;
+                    continue;
+                }
+
+                if (marked[set] <= ends[set] - j) {
+                    firsts[count] = firsts[set];
+                    ends[count] = firsts[set] = j;
+                } else {
+                    ends[count] = ends[set];
+                    firsts[count] = ends[set] = j;
+                }
+
+                for (int i = firsts[count]; i < ends[count]; i++) {
+                    sets[elements[i]] = count;
+                }
+                marked[set] = marked[count++] = 0;
+            }
+        }
+    }
+}
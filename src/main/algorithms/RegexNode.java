@@ -0,0 +1,685 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+import static algorithms.Grammar.EPSILON;
+import static algorithms.Grammar.GREEK_EPSILON;
+
+interface RegexVisitor<T> {
+    T visitSymbol(RegexSymbol node);
+
+    T visitConcatenation(RegexConcatenation node);
+
+    T visitAlternation(RegexAlternation node);
+
+    T visitStar(RegexStar node);
+
+    T visitGroup(RegexGroup node);
+
+    T visitRepetition(RegexRepetition node);
+}
+
+abstract class RegexNode {
+    /* Nodes are immutable, so each one hashes its subtree once when it is built. Fragment
+    caches look up every node of a tree, which would otherwise rehash the same subtrees over and
+    over, and comparing the hashes first lets equals skip most subtrees that differ. */
+    static RegexNode parse(String infix) {
+        // We just want to handle one type of Epsilon
+        infix = infix.replaceAll(GREEK_EPSILON, EPSILON);
+        return new RegexParser(infix).parse();
+    }
+
+    abstract <T> T accept(RegexVisitor<T> visitor);
+
+    RegexNode simplify() {
+        return accept(new RegexSimplifier());
+    }
+
+    String toPostfix() {
+        StringBuilder sb = new StringBuilder();
+        accept(new RegexPostfixWriter(sb));
+        return sb.toString();
+    }
+}
+
+class RegexSymbol extends RegexNode {
+    private final char consumed;
+
+    RegexSymbol(char consumed) {
+        this.consumed = consumed;
+    }
+
+    @Override
+    <T> T accept(RegexVisitor<T> visitor) {
+        return visitor.visitSymbol(this);
+    }
+
+    char getConsumed() {
+        return consumed;
+    }
+
+    boolean isEpsilon() {
+        return consumed == FSA.EPSILON;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RegexSymbol other = (RegexSymbol) o;
+        return consumed == other.consumed;
+    }
+
+    @Override
+    public int hashCode() {
+        return Character.hashCode(consumed);
+    }
+}
+
+class RegexConcatenation extends RegexNode {
+    private final List<RegexNode> children;
+    private final int hash;
+
+    RegexConcatenation(List<RegexNode> children) {
+        this.children = Collections.unmodifiableList(new ArrayList<>(children));
+        hash = Objects.hash(getClass(), this.children);
+    }
+
+    @Override
+    <T> T accept(RegexVisitor<T> visitor) {
+        return visitor.visitConcatenation(this);
+    }
+
+    List<RegexNode> getChildren() {
+        return children;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RegexConcatenation other = (RegexConcatenation) o;
+        return hash == other.hash && children.equals(other.children);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
+
+class RegexAlternation extends RegexNode {
+    private final List<RegexNode> children;
+    private final int hash;
+
+    RegexAlternation(List<RegexNode> children) {
+        this.children = Collections.unmodifiableList(new ArrayList<>(children));
+        hash = Objects.hash(getClass(), this.children);
+    }
+
+    @Override
+    <T> T accept(RegexVisitor<T> visitor) {
+        return visitor.visitAlternation(this);
+    }
+
+    List<RegexNode> getChildren() {
+        return children;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RegexAlternation other = (RegexAlternation) o;
+        return hash == other.hash && children.equals(other.children);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
+
+class RegexStar extends RegexNode {
+    private final RegexNode child;
+    private final int hash;
+
+    RegexStar(RegexNode child) {
+        this.child = child;
+        hash = Objects.hash(getClass(), child);
+    }
+
+    @Override
+    <T> T accept(RegexVisitor<T> visitor) {
+        return visitor.visitStar(this);
+    }
+
+    RegexNode getChild() {
+        return child;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RegexStar other = (RegexStar) o;
+        return hash == other.hash && child.equals(other.child);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
+
+class RegexGroup extends RegexNode {
+    // Groups are numbered by their left parenthesis, starting from 1
+    private final int index;
+    private final RegexNode child;
+    private final int hash;
+
+    RegexGroup(int index, RegexNode child) {
+        this.index = index;
+        this.child = child;
+        hash = Objects.hash(getClass(), index, child);
+    }
+
+    @Override
+    <T> T accept(RegexVisitor<T> visitor) {
+        return visitor.visitGroup(this);
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    RegexNode getChild() {
+        return child;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RegexGroup other = (RegexGroup) o;
+        return hash == other.hash && index == other.index && child.equals(other.child);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
+
+class RegexRepetition extends RegexNode {
+    // A max of Regex.UNBOUNDED stands for child{min,}
+    private final RegexNode child;
+    private final int min;
+    private final int max;
+    private final int hash;
+
+    RegexRepetition(RegexNode child, int min, int max) {
+        this.child = child;
+        this.min = min;
+        this.max = max;
+        hash = Objects.hash(getClass(), child, min, max);
+    }
+
+    @Override
+    <T> T accept(RegexVisitor<T> visitor) {
+        return visitor.visitRepetition(this);
+    }
+
+    RegexNode getChild() {
+        return child;
+    }
+
+    int getMin() {
+        return min;
+    }
+
+    int getMax() {
+        return max;
+    }
+
+    boolean isUnbounded() {
+        return max == Regex.UNBOUNDED;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RegexRepetition other = (RegexRepetition) o;
+        return hash == other.hash && min == other.min && max == other.max && child.equals(other.child);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
+
+class RegexParser {
+    /* Mirrors the precedence used by Regex.infixToPostfix, where | binds tighter than
+    concatenation, and * and {n,m} bind tighter than both. Concatenation is either implicit or
+    marked with an explicit '.' operator. */
+    private final char[] infix;
+    private int index;
+    private int groupCount;
+
+    RegexParser(String infix) {
+        this.infix = infix.toCharArray();
+    }
+
+    @NotNull
+    RegexNode parse() {
+        if (infix.length == 0) {
+            return new RegexSymbol(FSA.EPSILON);
+        }
+
+        RegexNode node = parseConcatenation();
+        if (index < infix.length) {
+            throw error();
+        }
+        return node;
+    }
+
+    @NotNull
+    private RegexNode parseConcatenation() {
+        List<RegexNode> children = new ArrayList<>();
+        children.add(parseAlternation());
+
+        while (index < infix.length) {
+            char next = infix[index];
+            if (next == '.') {
+                index++;
+                children.add(parseAlternation());
+            } else if (isOperand(next) || next == '(') {
+                children.add(parseAlternation());
+            } else {
+                break;
+            }
+        }
+
+        return children.size() == 1 ? children.get(0) : new RegexConcatenation(children);
+    }
+
+    @NotNull
+    private RegexNode parseAlternation() {
+        List<RegexNode> children = new ArrayList<>();
+        children.add(parseStar());
+
+        while (index < infix.length && infix[index] == '|') {
+            index++;
+            children.add(parseStar());
+        }
+
+        return children.size() == 1 ? children.get(0) : new RegexAlternation(children);
+    }
+
+    @NotNull
+    private RegexNode parseStar() {
+        RegexNode node = parseAtom();
+
+        while (index < infix.length && (infix[index] == '*' || infix[index] == '{')) {
+            if (infix[index] == '*') {
+                index++;
+                node = new RegexStar(node);
+            } else {
+                int end = Regex.findClosingBrace(infix, index);
+                int[] bounds = Regex.parseBounds(infix, index, end);
+                index = end + 1;
+                node = new RegexRepetition(node, bounds[0], bounds[1]);
+            }
+        }
+
+        return node;
+    }
+
+    @NotNull
+    private RegexNode parseAtom() {
+        if (index >= infix.length) {
+            throw error();
+        }
+
+        char current = infix[index];
+
+        if (current == '(') {
+            index++;
+            int group = ++groupCount;
+            RegexNode child;
+
+            if (index < infix.length && infix[index] == ')') {
+                child = new RegexSymbol(FSA.EPSILON);
+            } else {
+                child = parseConcatenation();
+            }
+
+            if (index >= infix.length || infix[index] != ')') {
+                throw error();
+            }
+            index++;
+            return new RegexGroup(group, child);
+        }
+
+        if (isOperand(current)) {
+            index++;
+            return new RegexSymbol(current);
+        }
+
+        throw error();
+    }
+
+    static boolean isOperand(char c) {
+        return !(c == '.' || c == '*' || c == '|' || c == '(' || c == ')' || c == '{'
+                || c == '}');
+    }
+
+    @NotNull
+    private IllegalArgumentException error() {
+        return new IllegalArgumentException("Invalid regular expression " + new String(infix) +
+                " at index " + index);
+    }
+}
+
+class RegexSimplifier implements RegexVisitor<RegexNode> {
+    /* Rewrites a tree bottom-up into a smaller one that matches the same language. Groups are
+    dropped, since only the tagged DFA reads them. */
+    private static final RegexSymbol EPSILON = new RegexSymbol(FSA.EPSILON);
+
+    @Override
+    public RegexNode visitSymbol(RegexSymbol node) {
+        return node;
+    }
+
+    @Override
+    public RegexNode visitConcatenation(RegexConcatenation node) {
+        List<RegexNode> children = new ArrayList<>();
+        for (RegexNode child : node.getChildren()) {
+            addToConcatenation(children, child.accept(this));
+        }
+        return makeConcatenation(children);
+    }
+
+    private static void addToConcatenation(List<RegexNode> children, RegexNode child) {
+        // Nested concatenations are flattened and epsilons are dropped
+        if (child instanceof RegexConcatenation) {
+            children.addAll(((RegexConcatenation) child).getChildren());
+        } else if (!child.equals(EPSILON)) {
+            children.add(child);
+        }
+    }
+
+    private static RegexNode makeConcatenation(List<RegexNode> children) {
+        if (children.isEmpty()) {
+            return EPSILON;
+        }
+        return children.size() == 1 ? children.get(0) : new RegexConcatenation(children);
+    }
+
+    @Override
+    public RegexNode visitAlternation(RegexAlternation node) {
+        // Nested alternations are flattened and repeated alternatives are dropped
+        Set<RegexNode> alternatives = new LinkedHashSet<>();
+        for (RegexNode child : node.getChildren()) {
+            RegexNode simplified = child.accept(this);
+            if (simplified instanceof RegexAlternation) {
+                alternatives.addAll(((RegexAlternation) simplified).getChildren());
+            } else {
+                alternatives.add(simplified);
+            }
+        }
+
+        // A star already matches the empty string
+        boolean hasStar = alternatives.stream().anyMatch(child -> child instanceof RegexStar);
+        if (hasStar && alternatives.size() > 1) {
+            alternatives.remove(EPSILON);
+        }
+
+        return factorPrefixes(new ArrayList<>(alternatives));
+    }
+
+    private RegexNode factorPrefixes(List<RegexNode> alternatives) {
+        /* Alternatives that start with the same node share it, as in a trie: ab|ac|d becomes
+        a(b|c)|d. The remainders are factored again when they are simplified. */
+        Map<RegexNode, List<List<RegexNode>>> byHead = new LinkedHashMap<>();
+        for (RegexNode alternative : alternatives) {
+            List<RegexNode> sequence = getSequence(alternative);
+            byHead.computeIfAbsent(sequence.get(0), k -> new ArrayList<>()).add(sequence);
+        }
+
+        List<RegexNode> factored = new ArrayList<>();
+        for (Map.Entry<RegexNode, List<List<RegexNode>>> entry : byHead.entrySet()) {
+            List<List<RegexNode>> sequences = entry.getValue();
+
+            if (sequences.size() == 1) {
+                factored.add(makeConcatenation(sequences.get(0)));
+            } else {
+                List<RegexNode> tails = new ArrayList<>();
+                for (List<RegexNode> sequence : sequences) {
+                    tails.add(makeConcatenation(sequence.subList(1, sequence.size())));
+                }
+
+                List<RegexNode> children = new ArrayList<>();
+                children.add(entry.getKey());
+                addToConcatenation(children, new RegexAlternation(tails).accept(this));
+                factored.add(makeConcatenation(children));
+            }
+        }
+
+        return factored.size() == 1 ? factored.get(0) : new RegexAlternation(factored);
+    }
+
+    private static List<RegexNode> getSequence(RegexNode node) {
+        if (node instanceof RegexConcatenation) {
+            return ((RegexConcatenation) node).getChildren();
+        }
+        return Collections.singletonList(node);
+    }
+
+    @Override
+    public RegexNode visitStar(RegexStar node) {
+        RegexNode child = stripStars(node.getChild().accept(this));
+        if (child.equals(EPSILON)) {
+            return EPSILON;
+        }
+        return new RegexStar(child);
+    }
+
+    private RegexNode stripStars(RegexNode node) {
+        /* Under a star, inner stars and empty alternatives add nothing: (a*)* is a*, and
+        (ε|a|b*)* is (a|b)*. */
+        if (node instanceof RegexStar) {
+            return ((RegexStar) node).getChild();
+        }
+
+        if (node instanceof RegexAlternation) {
+            List<RegexNode> alternatives = new ArrayList<>();
+            for (RegexNode child : ((RegexAlternation) node).getChildren()) {
+                RegexNode stripped = child instanceof RegexStar
+                        ? ((RegexStar) child).getChild()
+                        : child;
+                if (!stripped.equals(EPSILON) && !alternatives.contains(stripped)) {
+                    alternatives.add(stripped);
+                }
+            }
+
+            if (alternatives.isEmpty()) {
+                return EPSILON;
+            }
+            return alternatives.size() == 1
+                    ? alternatives.get(0)
+                    : new RegexAlternation(alternatives);
+        }
+
+        return node;
+    }
+
+    @Override
+    public RegexNode visitGroup(RegexGroup node) {
+        return node.getChild().accept(this);
+    }
+
+    @Override
+    public RegexNode visitRepetition(RegexRepetition node) {
+        RegexNode child = node.getChild().accept(this);
+        int min = node.getMin();
+        int max = node.getMax();
+
+        if (max == 0 || child.equals(EPSILON)) {
+            return EPSILON;
+        }
+        if (min == 1 && max == 1) {
+            return child;
+        }
+        if (min == 0 && node.isUnbounded()) {
+            return new RegexStar(child).accept(this);
+        }
+        return new RegexRepetition(child, min, max);
+    }
+}
+
+class RegexPostfixWriter implements RegexVisitor<Void> {
+    /* Writes the postfix form read by NFA.regexToNFA, in the same shape Regex.infixToPostfix
+    gives: concatenation associates to the left and alternation to the right. */
+    private final StringBuilder sb;
+
+    RegexPostfixWriter(StringBuilder sb) {
+        this.sb = sb;
+    }
+
+    @Override
+    public Void visitSymbol(RegexSymbol node) {
+        sb.append(node.getConsumed());
+        return null;
+    }
+
+    @Override
+    public Void visitConcatenation(RegexConcatenation node) {
+        List<RegexNode> children = node.getChildren();
+        children.get(0).accept(this);
+
+        for (int i = 1; i < children.size(); i++) {
+            children.get(i).accept(this);
+            sb.append('.');
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitAlternation(RegexAlternation node) {
+        List<RegexNode> children = node.getChildren();
+        for (RegexNode child : children) {
+            child.accept(this);
+        }
+
+        sb.append("|".repeat(children.size() - 1));
+        return null;
+    }
+
+    @Override
+    public Void visitStar(RegexStar node) {
+        node.getChild().accept(this);
+        sb.append('*');
+        return null;
+    }
+
+    @Override
+    public Void visitGroup(RegexGroup node) {
+        return node.getChild().accept(this);
+    }
+
+    @Override
+    public Void visitRepetition(RegexRepetition node) {
+        node.getChild().accept(this);
+        sb.append('{').append(node.getMin()).append(',');
+        if (!node.isUnbounded()) {
+            sb.append(node.getMax());
+        }
+        sb.append('}');
+        return null;
+    }
+}
+
+class RegexLiterals implements RegexVisitor<Set<String>> {
+    /* Collects the finite set of words a star-free expression made only of letters,
+    concatenation, alternation and exact repetition accepts, or null if it is anything else.
+    Concatenating alternations multiplies their words, so past MAX_WORDS this gives up too. */
+    static final int MAX_WORDS = 4096;
+
+    @Override
+    public Set<String> visitSymbol(RegexSymbol node) {
+        String word = node.isEpsilon() ? "" : String.valueOf(node.getConsumed());
+        return new TreeSet<>(Collections.singleton(word));
+    }
+
+    @Override
+    public Set<String> visitConcatenation(RegexConcatenation node) {
+        Set<String> words = new TreeSet<>(Collections.singleton(""));
+        for (RegexNode child : node.getChildren()) {
+            words = concatenate(words, child.accept(this));
+            if (words == null) {
+                return null;
+            }
+        }
+        return words;
+    }
+
+    private static Set<String> concatenate(Set<String> prefixes, Set<String> suffixes) {
+        if (suffixes == null || (long) prefixes.size() * suffixes.size() > MAX_WORDS) {
+            return null;
+        }
+
+        Set<String> words = new TreeSet<>();
+        for (String prefix : prefixes) {
+            for (String suffix : suffixes) {
+                words.add(prefix + suffix);
+            }
+        }
+        return words;
+    }
+
+    @Override
+    public Set<String> visitAlternation(RegexAlternation node) {
+        Set<String> words = new TreeSet<>();
+        for (RegexNode child : node.getChildren()) {
+            Set<String> childWords = child.accept(this);
+            if (childWords == null) {
+                return null;
+            }
+
+            words.addAll(childWords);
+            if (words.size() > MAX_WORDS) {
+                return null;
+            }
+        }
+        return words;
+    }
+
+    @Override
+    public Set<String> visitStar(RegexStar node) {
+        return null;
+    }
+
+    @Override
+    public Set<String> visitGroup(RegexGroup node) {
+        return node.getChild().accept(this);
+    }
+
+    @Override
+    public Set<String> visitRepetition(RegexRepetition node) {
+        if (node.getMin() != node.getMax()) {
+            return null;
+        }
+
+        Set<String> childWords = node.getChild().accept(this);
+        Set<String> words = new TreeSet<>(Collections.singleton(""));
+        for (int i = 0; i < node.getMin() && words != null; i++) {
+            words = concatenate(words, childWords);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,205 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+class ScannerGenerator {
+    /* Writes a DFA out as the Java source of a standalone scanner, the way JFlex does: the
+    transition table and the token of each state are run-length encoded into string constants
+    and unpacked once when the class is loaded, so the generated class needs nothing from this
+    package at runtime. A string constant may take at most 65535 bytes of modified UTF-8, and a
+    char takes up to three, so packed data is split into chunks of CHUNK chars, an even number
+    that never splits a pair. */
+    static final int CHUNK = 16384;
+    static final int NO_TOKEN = -1;
+
+    @NotNull
+    static String generate(DFA dfa, String className) {
+        // A single pattern has one token, 0, for every accepting state
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(dfa);
+        int[] tokens = new int[compiled.getStateCount()];
+        for (int state = 0; state < tokens.length; state++) {
+            tokens[state] = compiled.isAccepting(state) ? 0 : NO_TOKEN;
+        }
+        return generate(compiled, tokens, className);
+    }
+
+    @NotNull
+    static String generate(CompiledDFA dfa, int[] tokens, String className) {
+        char[] alphabet = dfa.getAlphabet();
+        int[] table = new int[dfa.getStateCount() * alphabet.length];
+        for (int state = 0; state < dfa.getStateCount(); state++) {
+            for (int column = 0; column < alphabet.length; column++) {
+                table[state * alphabet.length + column] = dfa.step(state, alphabet[column]);
+            }
+        }
+
+        int dot = className.lastIndexOf('.');
+        String packageName = dot < 0 ? null : className.substring(0, dot);
+        String simpleName = className.substring(dot + 1);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("// Generated by algorithms.ScannerGenerator; do not edit\n");
+        if (packageName != null) {
+            sb.append("package ").append(packageName).append(";\n");
+        }
+        sb.append("\n");
+        sb.append("public final class ").append(simpleName).append(" {\n");
+        sb.append("    public static final int NO_MATCH = -1;\n");
+        sb.append("    public static final int NO_TOKEN = -1;\n");
+        sb.append("    private static final int DEAD = -1;\n");
+        sb.append("    private static final int ASCII = 128;\n");
+        sb.append("\n");
+        sb.append("    // Letters in order; a letter's position is its column in TABLE\n");
+        sb.append("    private static final char[] ALPHABET = String.join(\"\", ")
+                .append(printChunks(new String(alphabet))).append(").toCharArray();\n");
+        sb.append("    private static final int[] ASCII_COLUMNS = new int[ASCII];\n");
+        sb.append("\n");
+        sb.append("    // Row-major: the next state for (state, letter) is at ")
+                .append("state * ALPHABET.length + column\n");
+        sb.append("    private static final int[] TABLE = unpack(")
+                .append(printChunks(pack(table))).append(", ").append(table.length)
+                .append(");\n");
+        sb.append("    private static final int[] TOKENS = unpack(")
+                .append(printChunks(pack(tokens))).append(", ").append(tokens.length)
+                .append(");\n");
+        sb.append("    private static final int START = ").append(dfa.getStart()).append(";\n");
+        sb.append("\n");
+        sb.append(RUNTIME.replace("CLASS_NAME", simpleName));
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    static String pack(int[] values) {
+        /* Pairs of (run length, value + 1), so that DEAD and NO_TOKEN are stored as 0. A value
+        must then be below Character.MAX_VALUE, which bounds the states and tokens of a scanner. */
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < values.length) {
+            int value = values[i];
+            if (value < -1 || value + 1 > Character.MAX_VALUE) {
+                throw new IllegalArgumentException("Value " + value + " at " + i +
+                        " does not fit in a packed char");
+            }
+            int run = 1;
+            boolean canExtend = run < Character.MAX_VALUE;
+            while (canExtend && i + run < values.length && values[i + run] == value) {
+                run++;
+                canExtend = run < Character.MAX_VALUE;
+            }
+            sb.append((char) run).append((char) (value + 1));
+            i += run;
+        }
+        return sb.toString();
+    }
+
+    static int[] unpack(String packed, int length) {
+        // The same decoding the generated class does, kept here so the encoding can be tested
+        int[] values = new int[length];
+        int j = 0;
+        for (int i = 0; i < packed.length(); i += 2) {
+            Arrays.fill(values, j, j + packed.charAt(i), packed.charAt(i + 1) - 1);
+            j += packed.charAt(i);
+        }
+        return values;
+    }
+
+    private static String printChunks(String packed) {
+        StringBuilder sb = new StringBuilder("new String[]{");
+        for (int start = 0; start < packed.length(); start += CHUNK) {
+            if (start > 0) {
+                sb.append(",");
+            }
+            sb.append("\n            \"");
+            sb.append(escape(packed.substring(start, Math.min(packed.length(), start + CHUNK))));
+            sb.append("\"");
+        }
+        return sb.append("}").toString();
+    }
+
+    private static String escape(String chunk) {
+        /* Octal escapes are always three digits, so a following digit is never read as part
+        of one. Unicode escapes are translated before the source is tokenized, so they are only
+        safe above ÿ, where there are no quotes, backslashes or line terminators. */
+        StringBuilder sb = new StringBuilder();
+        for (char letter : chunk.toCharArray()) {
+            if (letter >= ' ' && letter < 0x7F && letter != '"' && letter != '\\') {
+                sb.append(letter);
+            } else if (letter <= 0xFF) {
+                sb.append(String.format("\\%03o", (int) letter));
+            } else {
+                sb.append(String.format("\\u%04x", (int) letter));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final String RUNTIME = "" +
+            "    static {\n" +
+            "        java.util.Arrays.fill(ASCII_COLUMNS, DEAD);\n" +
+            "        for (int column = 0; column < ALPHABET.length && ALPHABET[column] < ASCII; " +
+            "column++) {\n" +
+            "            ASCII_COLUMNS[ALPHABET[column]] = column;\n" +
+            "        }\n" +
+            "    }\n" +
+            "\n" +
+            "    private CLASS_NAME() {\n" +
+            "    }\n" +
+            "\n" +
+            "    public static boolean matches(CharSequence input) {\n" +
+            "        int state = START;\n" +
+            "        for (int i = 0; i < input.length() && state != DEAD; i++) {\n" +
+            "            state = step(state, input.charAt(i));\n" +
+            "        }\n" +
+            "        return state != DEAD && TOKENS[state] != NO_TOKEN;\n" +
+            "    }\n" +
+            "\n" +
+            "    // End of the longest match starting at from, or NO_MATCH\n" +
+            "    public static int longestMatch(CharSequence input, int from) {\n" +
+            "        return (int) (scan(input, from) >> 32);\n" +
+            "    }\n" +
+            "\n" +
+            "    // Token of the longest match starting at from, or NO_TOKEN\n" +
+            "    public static int token(CharSequence input, int from) {\n" +
+            "        return (int) scan(input, from);\n" +
+            "    }\n" +
+            "\n" +
+            "    // The end of the longest match in the high half, its token in the low half\n" +
+            "    public static long scan(CharSequence input, int from) {\n" +
+            "        int state = START;\n" +
+            "        int end = TOKENS[state] != NO_TOKEN ? from : NO_MATCH;\n" +
+            "        int token = TOKENS[state];\n" +
+            "        for (int i = from; i < input.length(); i++) {\n" +
+            "            state = step(state, input.charAt(i));\n" +
+            "            if (state == DEAD) {\n" +
+            "                break;\n" +
+            "            }\n" +
+            "            if (TOKENS[state] != NO_TOKEN) {\n" +
+            "                end = i + 1;\n" +
+            "                token = TOKENS[state];\n" +
+            "            }\n" +
+            "        }\n" +
+            "        return ((long) end << 32) | (token & 0xFFFFFFFFL);\n" +
+            "    }\n" +
+            "\n" +
+            "    private static int step(int state, char letter) {\n" +
+            "        int column = letter < ASCII ? ASCII_COLUMNS[letter]\n" +
+            "                : java.util.Arrays.binarySearch(ALPHABET, letter);\n" +
+            "        return column < 0 ? DEAD : TABLE[state * ALPHABET.length + column];\n" +
+            "    }\n" +
+            "\n" +
+            "    private static int[] unpack(String[] chunks, int length) {\n" +
+            "        // Pairs of (run length, value + 1)\n" +
+            "        int[] values = new int[length];\n" +
+            "        int j = 0;\n" +
+            "        for (String packed : chunks) {\n" +
+            "            for (int i = 0; i < packed.length(); i += 2) {\n" +
+            "                java.util.Arrays.fill(values, j, j + packed.charAt(i), " +
+            "packed.charAt(i + 1) - 1);\n" +
+            "                j += packed.charAt(i);\n" +
+            "            }\n" +
+            "        }\n" +
+            "        return values;\n" +
+            "    }\n";
+}
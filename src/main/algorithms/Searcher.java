@@ -0,0 +1,157 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class Searcher {
+    /* Finds leftmost-longest matches anywhere in the input without restarting the DFA at every
+    position. One backward pass with the reversed automaton, made unanchored, marks every
+    offset where some match starts. The leftmost of those is then extended as far as possible
+    with one anchored forward pass. A forward pass may read far past the end of its match, so
+    findAll remembers where long passes were shown to find nothing longer, and later passes stop
+    there instead of reading the same stretch again. That keeps it linear in the input. */
+    static final int SHORT_PASS = 16;
+    private final CompiledDFA forward;
+    private final CompiledDFA backward;
+
+    Searcher(CompiledDFA forward, CompiledDFA backward) {
+        this.forward = forward;
+        this.backward = backward;
+    }
+
+    static Searcher regexToSearcher(String regex) {
+        DFA minDfa = DFA.regexToMinDFA(regex);
+
+        NFA reversed = NFA.reverse(minDfa).makeUnanchored();
+        DFA minReversedDfa = DFA.DFAtoMinDFA(DFA.NFAtoDFA(reversed));
+
+        return new Searcher(CompiledDFA.DFAtoCompiledDFA(minDfa),
+                CompiledDFA.DFAtoCompiledDFA(minReversedDfa));
+    }
+
+    // The start and end offsets of the leftmost-longest match at or after from, or null
+    int[] find(CharSequence input, int from) {
+        return find(input, from, getMatchStarts(input));
+    }
+
+    List<int[]> findAll(CharSequence input) {
+        // The starts only depend on the input, so one backward pass serves every match
+        boolean[] matchStarts = getMatchStarts(input);
+        ExhaustedPairs exhausted = new ExhaustedPairs(forward.getStateCount());
+        List<int[]> matches = new ArrayList<>();
+        int from = 0;
+
+        while (from <= input.length()) {
+            int start = getNextStart(from, matchStarts);
+            if (start == Matcher.NO_MATCH) {
+                break;
+            }
+            int[] match = new int[]{start, longestMatch(input, start, exhausted)};
+            matches.add(match);
+
+            // An empty match would otherwise be found again at the same offset
+            from = match[1] > match[0] ? match[1] : match[1] + 1;
+        }
+
+        return matches;
+    }
+
+    private int[] find(CharSequence input, int from, boolean[] matchStarts) {
+        int start = getNextStart(from, matchStarts);
+        return start == Matcher.NO_MATCH
+                ? null
+                : new int[]{start, forward.longestMatch(input, start)};
+    }
+
+    private static int getNextStart(int from, boolean[] matchStarts) {
+        for (int start = from; start < matchStarts.length; start++) {
+            if (matchStarts[start]) {
+                return start;
+            }
+        }
+        return Matcher.NO_MATCH;
+    }
+
+    private int longestMatch(CharSequence input, int from, ExhaustedPairs exhausted) {
+        /* A pass that gets to an exhausted pair can stop, since the passes are deterministic
+        and it would only retrace an earlier one. Matches never overlap, so on a run of a's with
+        (a)|(a*b), each pass after the first stops one letter in. */
+        int state = forward.getStart();
+        int lastAccept = forward.isAccepting(state) ? from : Matcher.NO_MATCH;
+        int lastAcceptState = state;
+        int i = from;
+
+        while (!exhausted.contains(state, i) && i < input.length()) {
+            state = forward.step(state, input.charAt(i++));
+            if (state == CompiledDFA.DEAD) {
+                break;
+            }
+            if (forward.isAccepting(state)) {
+                lastAccept = i;
+                lastAcceptState = state;
+            }
+        }
+
+        // Passes that stop soon after their match cost little to repeat, so only long ones count
+        if (lastAccept == Matcher.NO_MATCH || i - lastAccept <= SHORT_PASS) {
+            return lastAccept;
+        }
+
+        // Nothing past the match end accepts, so retrace the pass from there and record it
+        state = lastAcceptState;
+        i = lastAccept;
+        while (state != CompiledDFA.DEAD && exhausted.add(state, i)
+                && i < input.length()) {
+            state = forward.step(state, input.charAt(i++));
+        }
+
+        return lastAccept;
+    }
+
+    private static class ExhaustedPairs {
+        /* The (state, offset) pairs from which the forward DFA reaches no accepting state
+        further on. Pairs are only recorded past the end of a match, and the next pass starts
+        there, so offsets beyond the furthest one recorded need no lookup. */
+        private final Set<Long> pairs = new HashSet<>();
+        private final int stateCount;
+        private int furthest = -1;
+
+        ExhaustedPairs(int stateCount) {
+            this.stateCount = stateCount;
+        }
+
+        boolean contains(int state, int offset) {
+            return offset <= furthest && pairs.contains(getKey(state, offset));
+        }
+
+        boolean add(int state, int offset) {
+            furthest = Math.max(furthest, offset);
+            return pairs.add(getKey(state, offset));
+        }
+
+        private long getKey(int state, int offset) {
+            return (long) offset * stateCount + state;
+        }
+    }
+
+    boolean[] getMatchStarts(CharSequence input) {
+        /* matchStarts[i] holds if a match begins at offset i. The reversed DFA loops on its start
+        state over the whole alphabet, so it only dies on letters outside of it, and those can
+        only be skipped over; reading one puts it back at the start. */
+        boolean[] matchStarts = new boolean[input.length() + 1];
+        int state = backward.getStart();
+        matchStarts[input.length()] = backward.isAccepting(state);
+
+        for (int i = input.length() - 1; i >= 0; i--) {
+            state = backward.step(state, input.charAt(i));
+            if (state == CompiledDFA.DEAD) {
+                state = backward.getStart();
+            }
+            matchStarts[i] = backward.isAccepting(state);
+        }
+
+        return matchStarts;
+    }
+}
@@ -0,0 +1,133 @@
+package algorithms;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+interface MatchListener {
+    // end is the offset just past the last char or byte of the match, counted from the stream start
+    void onMatch(long end);
+}
+
+class StreamMatcher {
+    /* Reports every offset at which some match of the pattern ends, as input arrives in chunks
+    of any size. Matches may start anywhere, and the DFA is made unanchored by looping its start
+    state over the whole alphabet, so the only thing carried from one chunk to the next is the
+    current state and the offset. Nothing that has been fed is kept. A stream is fed either
+    chars, through a DFA over chars, or bytes, through its UTF-8 lowering; offsets count in the
+    same unit. Patterns that match the empty string are rejected, since they would match at
+    every offset. */
+    private final CompiledDFA charDfa;
+    private final ByteDFA byteDfa;
+    private final MatchListener listener;
+    private int state;
+    private long offset;
+
+    private StreamMatcher(CompiledDFA charDfa, ByteDFA byteDfa, MatchListener listener) {
+        this.charDfa = charDfa;
+        this.byteDfa = byteDfa;
+        this.listener = listener;
+        state = getStart();
+    }
+
+    static StreamMatcher forChars(String regex, MatchListener listener) {
+        return forChars(CompiledDFA.DFAtoCompiledDFA(getUnanchoredDFA(regex)), listener);
+    }
+
+    static StreamMatcher forChars(CompiledDFA unanchored, MatchListener listener) {
+        // The DFA is only read, so many streams may share one
+        return new StreamMatcher(unanchored, null, listener);
+    }
+
+    static StreamMatcher forBytes(String regex, MatchListener listener) {
+        return new StreamMatcher(null, ByteDFA.DFAtoByteDFA(getUnanchoredDFA(regex)), listener);
+    }
+
+    static DFA getUnanchoredDFA(String regex) {
+        NFA nfa = NFA.regexToNFA(regex);
+        if (nfa.accepts("")) {
+            throw new IllegalArgumentException("Pattern matches the empty string: " + regex);
+        }
+        return DFA.DFAtoMinDFA(DFA.NFAtoDFA(nfa.makeUnanchored()));
+    }
+
+    void feed(char[] input, int offset, int length) {
+        if (charDfa == null) {
+            throw new IllegalStateException("This stream is fed bytes");
+        }
+
+        // Wrapping does not copy, and lets runs of a self-loop be skipped
+        CharBuffer chars = CharBuffer.wrap(input);
+        int limit = offset + length;
+        int i = offset;
+
+        while (i < limit) {
+            if (!charDfa.isAccepting(state) && charDfa.isAccelerated(state)) {
+                i = charDfa.skipLoop(state, chars, i, limit);
+                if (i == limit) {
+                    break;
+                }
+            }
+
+            // Letters outside the alphabet are in no match, so the search starts over
+            state = charDfa.step(state, input[i++]);
+            if (state == CompiledDFA.DEAD) {
+                state = charDfa.getStart();
+            } else if (charDfa.isAccepting(state)) {
+                listener.onMatch(this.offset + i - offset);
+            }
+        }
+
+        this.offset += length;
+    }
+
+    void feed(ByteBuffer input) {
+        if (byteDfa == null) {
+            throw new IllegalStateException("This stream is fed chars");
+        }
+
+        int position = input.position();
+        int limit = input.limit();
+
+        for (int i = position; i < limit; i++) {
+            byte consumed = input.get(i);
+            int next = byteDfa.step(state, consumed);
+
+            /* A byte that leads nowhere ends the current attempt. Unless it continues a
+            sequence, it may still begin a letter of the pattern, so it is tried again. */
+            if (next == ByteDFA.DEAD) {
+                next = isContinuationByte(consumed)
+                        ? ByteDFA.DEAD
+                        : byteDfa.step(byteDfa.getStart(), consumed);
+                if (next == ByteDFA.DEAD) {
+                    next = byteDfa.getStart();
+                }
+            }
+
+            state = next;
+            if (byteDfa.isAccepting(state)) {
+                listener.onMatch(offset + i - position + 1);
+            }
+        }
+
+        offset += limit - position;
+        input.position(limit);
+    }
+
+    private static boolean isContinuationByte(byte consumed) {
+        return (consumed & 0xC0) == 0x80;
+    }
+
+    void finish() {
+        // Every match was reported when its last unit arrived, so only the stream is reset
+        state = getStart();
+        offset = 0;
+    }
+
+    private int getStart() {
+        return charDfa != null ? charDfa.getStart() : byteDfa.getStart();
+    }
+
+    long getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,530 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+class TDFA {
+    /* A tagged DFA (Laurikari, with Trofimovich's register operations on transitions) that
+    records capture group boundaries in registers during a single left-to-right pass. Among all
+    ways to match, the one preferred by a backtracking engine wins: alternatives are tried left
+    to right and stars are greedy. Unlike a backtracking engine, a star never takes an extra
+    iteration that matches nothing, so the group in (a*)* keeps the last non-empty iteration. */
+    static final int UNSET = -1;
+
+    private final int groupCount;
+    private final int registerCount;
+    private final TaggedOperations initialOperations;
+    private final List<TreeMap<Character, TaggedTransition>> transitions;
+
+    // For each state, the register holding each tag of the preferred final configuration
+    private final List<int[]> finalRegisters;
+
+    TDFA(int groupCount, int registerCount, TaggedOperations initialOperations,
+         List<TreeMap<Character, TaggedTransition>> transitions, List<int[]> finalRegisters) {
+        this.groupCount = groupCount;
+        this.registerCount = registerCount;
+        this.initialOperations = initialOperations;
+        this.transitions = transitions;
+        this.finalRegisters = finalRegisters;
+    }
+
+    static TDFA regexToTDFA(String infix) {
+        RegexNode tree = RegexNode.parse(infix);
+        TNFA tnfa = TNFA.treeToTNFA(tree);
+        return new TDFABuilder(tnfa).build();
+    }
+
+    int[] match(CharSequence input) {
+        /* Returns the start and end offsets of the whole match followed by those of every
+        group, or null if the input does not match. Groups that did not participate are UNSET. */
+        int[] registers = new int[registerCount];
+        Arrays.fill(registers, UNSET);
+        int[] scratch = new int[registerCount];
+
+        initialOperations.apply(registers, scratch, 0);
+        int state = 0;
+
+        for (int i = 0; i < input.length(); i++) {
+            TaggedTransition transition = transitions.get(state).get(input.charAt(i));
+            if (transition == null) {
+                return null;
+            }
+            transition.operations.apply(registers, scratch, i + 1);
+            state = transition.to;
+        }
+
+        int[] tags = finalRegisters.get(state);
+        if (tags == null) {
+            return null;
+        }
+
+        int[] offsets = new int[2 * (groupCount + 1)];
+        offsets[0] = 0;
+        offsets[1] = input.length();
+        for (int tag = 0; tag < tags.length; tag++) {
+            offsets[tag + 2] = registers[tags[tag]];
+        }
+        return offsets;
+    }
+
+    int getGroupCount() {
+        return groupCount;
+    }
+
+    int getRegisterCount() {
+        return registerCount;
+    }
+
+    int getStateCount() {
+        return transitions.size();
+    }
+}
+
+class TaggedTransition {
+    final int to;
+    final TaggedOperations operations;
+
+    TaggedTransition(int to, TaggedOperations operations) {
+        this.to = to;
+        this.operations = operations;
+    }
+}
+
+class TaggedOperations {
+    // Each destination register takes the current position if its source is UNSET
+    private final int[] destinations;
+    private final int[] sources;
+
+    TaggedOperations(int[] destinations, int[] sources) {
+        this.destinations = destinations;
+        this.sources = sources;
+    }
+
+    void apply(int[] registers, int[] scratch, int position) {
+        // Copies are parallel, so every source is read before any destination is written
+        for (int i = 0; i < sources.length; i++) {
+            scratch[i] = sources[i] == TDFA.UNSET ? position : registers[sources[i]];
+        }
+        for (int i = 0; i < destinations.length; i++) {
+            registers[destinations[i]] = scratch[i];
+        }
+    }
+}
+
+class TNFA {
+    /* A Thompson NFA whose epsilon moves are ordered by priority and may carry a tag. Group g
+    has its opening tag at 2(g - 1) and its closing tag at 2(g - 1) + 1. */
+    static final int NO_TAG = -1;
+
+    private final List<Character> symbols = new ArrayList<>();
+    private final List<Integer> symbolTargets = new ArrayList<>();
+    private final List<List<int[]>> epsilons = new ArrayList<>();
+    private final Alphabet alphabet = new Alphabet();
+    private int start;
+    private int finalState;
+    private int groupCount;
+
+    static TNFA treeToTNFA(RegexNode tree) {
+        TNFA tnfa = new TNFA();
+        int[] fragment = tree.accept(new TNFABuilder(tnfa));
+        tnfa.start = fragment[0];
+        tnfa.finalState = fragment[1];
+        return tnfa;
+    }
+
+    int addState() {
+        symbols.add(null);
+        symbolTargets.add(null);
+        epsilons.add(new ArrayList<>());
+        return symbols.size() - 1;
+    }
+
+    void addSymbolMove(int from, char consumed, int to) {
+        symbols.set(from, consumed);
+        symbolTargets.set(from, to);
+        alphabet.add(consumed);
+    }
+
+    void addEpsilonMove(int from, int to, int tag) {
+        epsilons.get(from).add(new int[]{to, tag});
+    }
+
+    void addGroup(int index) {
+        groupCount = Math.max(groupCount, index);
+    }
+
+    Character getSymbol(int state) {
+        return symbols.get(state);
+    }
+
+    int getSymbolTarget(int state) {
+        return symbolTargets.get(state);
+    }
+
+    List<int[]> getEpsilons(int state) {
+        return epsilons.get(state);
+    }
+
+    Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    int getFinalState() {
+        return finalState;
+    }
+
+    int getGroupCount() {
+        return groupCount;
+    }
+
+    int getTagCount() {
+        return 2 * groupCount;
+    }
+
+    int size() {
+        return symbols.size();
+    }
+}
+
+class TNFABuilder implements RegexVisitor<int[]> {
+    // Every fragment is a pair of its start state and its single final state
+    private final TNFA tnfa;
+
+    TNFABuilder(TNFA tnfa) {
+        this.tnfa = tnfa;
+    }
+
+    @Override
+    public int[] visitSymbol(RegexSymbol node) {
+        int start = tnfa.addState();
+        int end = tnfa.addState();
+
+        if (node.isEpsilon()) {
+            tnfa.addEpsilonMove(start, end, TNFA.NO_TAG);
+        } else {
+            tnfa.addSymbolMove(start, node.getConsumed(), end);
+        }
+        return new int[]{start, end};
+    }
+
+    @Override
+    public int[] visitConcatenation(RegexConcatenation node) {
+        int[] result = null;
+
+        for (RegexNode child : node.getChildren()) {
+            result = append(result, child.accept(this));
+        }
+        return result;
+    }
+
+    @Override
+    public int[] visitAlternation(RegexAlternation node) {
+        int start = tnfa.addState();
+        int end = tnfa.addState();
+
+        // Earlier alternatives have higher priority
+        for (RegexNode child : node.getChildren()) {
+            int[] fragment = child.accept(this);
+            tnfa.addEpsilonMove(start, fragment[0], TNFA.NO_TAG);
+            tnfa.addEpsilonMove(fragment[1], end, TNFA.NO_TAG);
+        }
+        return new int[]{start, end};
+    }
+
+    @Override
+    public int[] visitStar(RegexStar node) {
+        int start = tnfa.addState();
+        int end = tnfa.addState();
+        int[] fragment = node.getChild().accept(this);
+
+        // Greedy: another iteration is preferred over leaving the loop
+        tnfa.addEpsilonMove(start, fragment[0], TNFA.NO_TAG);
+        tnfa.addEpsilonMove(start, end, TNFA.NO_TAG);
+        tnfa.addEpsilonMove(fragment[1], fragment[0], TNFA.NO_TAG);
+        tnfa.addEpsilonMove(fragment[1], end, TNFA.NO_TAG);
+        return new int[]{start, end};
+    }
+
+    @Override
+    public int[] visitRepetition(RegexRepetition node) {
+        // Unrolled like NFA.repeat, where each optional copy prefers to be taken
+        int[] result = null;
+        int copies = 0;
+
+        for (; copies < node.getMin(); copies++) {
+            result = append(result, node.getChild().accept(this));
+        }
+
+        if (node.isUnbounded()) {
+            return append(result, visitStar(new RegexStar(node.getChild())));
+        }
+
+        int start = tnfa.addState();
+        int end = tnfa.addState();
+        int current = start;
+
+        for (; copies < node.getMax(); copies++) {
+            int[] fragment = node.getChild().accept(this);
+            tnfa.addEpsilonMove(current, fragment[0], TNFA.NO_TAG);
+            tnfa.addEpsilonMove(current, end, TNFA.NO_TAG);
+            current = fragment[1];
+        }
+        tnfa.addEpsilonMove(current, end, TNFA.NO_TAG);
+
+        return append(result, new int[]{start, end});
+    }
+
+    private int[] append(int[] first, int[] second) {
+        if (first == null) {
+            return second;
+        }
+        tnfa.addEpsilonMove(first[1], second[0], TNFA.NO_TAG);
+        return new int[]{first[0], second[1]};
+    }
+
+    @Override
+    public int[] visitGroup(RegexGroup node) {
+        int start = tnfa.addState();
+        int end = tnfa.addState();
+        int[] fragment = node.getChild().accept(this);
+        int openingTag = 2 * (node.getIndex() - 1);
+
+        tnfa.addGroup(node.getIndex());
+        tnfa.addEpsilonMove(start, fragment[0], openingTag);
+        tnfa.addEpsilonMove(fragment[1], end, openingTag + 1);
+        return new int[]{start, end};
+    }
+}
+
+class TaggedConfiguration {
+    // registers[tag] is the register holding that tag, or FRESH if it is set by this move
+    static final int FRESH = -2;
+
+    final int state;
+    final int[] registers;
+
+    TaggedConfiguration(int state, int[] registers) {
+        this.state = state;
+        this.registers = registers;
+    }
+}
+
+class TDFABuilder {
+    private final TNFA tnfa;
+    private final int tagCount;
+    private final List<List<TaggedConfiguration>> states = new ArrayList<>();
+    private final Map<List<Integer>, List<Integer>> statesByKernel = new HashMap<>();
+    private final List<TreeMap<Character, TaggedTransition>> transitions = new ArrayList<>();
+    private final List<int[]> finalRegisters = new ArrayList<>();
+    private int registerCount;
+
+    TDFABuilder(TNFA tnfa) {
+        this.tnfa = tnfa;
+        this.tagCount = tnfa.getTagCount();
+    }
+
+    @NotNull
+    TDFA build() {
+        // Registers 0 to tagCount - 1 start out UNSET, so they stand for tags not yet seen
+        registerCount = tagCount;
+        int[] unset = new int[tagCount];
+        for (int tag = 0; tag < tagCount; tag++) {
+            unset[tag] = tag;
+        }
+
+        List<TaggedConfiguration> kernel = new ArrayList<>();
+        kernel.add(new TaggedConfiguration(tnfa.getStart(), unset));
+        TaggedTransition initial = addTransition(closure(kernel));
+
+        Queue<Integer> queue = new Queue<>(Collections.singleton(initial.to));
+        while (!queue.isEmpty()) {
+            int from = queue.dequeue();
+
+            for (Character consumed : tnfa.getAlphabet()) {
+                kernel = step(states.get(from), consumed);
+                if (kernel.isEmpty()) {
+                    continue;
+                }
+
+                int stateCount = states.size();
+                TaggedTransition transition = addTransition(closure(kernel));
+                transitions.get(from).put(consumed, transition);
+
+                if (states.size() > stateCount) {
+                    queue.add(transition.to);
+                }
+            }
+        }
+
+        return new TDFA(tnfa.getGroupCount(), registerCount, initial.operations, transitions,
+                finalRegisters);
+    }
+
+    @NotNull
+    private List<TaggedConfiguration> step(List<TaggedConfiguration> configurations,
+                                           char consumed) {
+        List<TaggedConfiguration> kernel = new ArrayList<>();
+        for (TaggedConfiguration configuration : configurations) {
+            Character symbol = tnfa.getSymbol(configuration.state);
+            if (symbol != null && symbol == consumed) {
+                int to = tnfa.getSymbolTarget(configuration.state);
+                kernel.add(new TaggedConfiguration(to, configuration.registers));
+            }
+        }
+        return kernel;
+    }
+
+    @NotNull
+    private List<TaggedConfiguration> closure(List<TaggedConfiguration> kernel) {
+        /* A depth-first search in priority order, where the first path to reach a state wins.
+        Only states that consume a symbol or are final are kept. */
+        List<TaggedConfiguration> closure = new ArrayList<>();
+        boolean[] visited = new boolean[tnfa.size()];
+        Stack<TaggedConfiguration> stack = new Stack<>();
+
+        for (TaggedConfiguration root : kernel) {
+            stack.push(root);
+
+            while (!stack.isEmpty()) {
+                TaggedConfiguration configuration = stack.pop();
+                int state = configuration.state;
+                if (visited[state]) {
+                    continue;
+                }
+                visited[state] = true;
+
+                if (tnfa.getSymbol(state) != null || state == tnfa.getFinalState()) {
+                    closure.add(configuration);
+                }
+
+                List<int[]> epsilons = tnfa.getEpsilons(state);
+                for (int i = epsilons.size() - 1; i >= 0; i--) {
+                    int[] epsilon = epsilons.get(i);
+                    int[] registers = configuration.registers;
+
+                    if (epsilon[1] != TNFA.NO_TAG) {
+                        registers = registers.clone();
+                        registers[epsilon[1]] = TaggedConfiguration.FRESH;
+                    }
+                    stack.push(new TaggedConfiguration(epsilon[0], registers));
+                }
+            }
+        }
+
+        return closure;
+    }
+
+    @NotNull
+    private TaggedTransition addTransition(List<TaggedConfiguration> closure) {
+        // Every tag set by this move gets one new register, since they all hold one position
+        int[] freshRegisters = new int[tagCount];
+        Arrays.fill(freshRegisters, TDFA.UNSET);
+        int firstFresh = registerCount;
+
+        for (TaggedConfiguration configuration : closure) {
+            for (int tag = 0; tag < tagCount; tag++) {
+                boolean isFresh = configuration.registers[tag] == TaggedConfiguration.FRESH;
+                if (isFresh && freshRegisters[tag] == TDFA.UNSET) {
+                    freshRegisters[tag] = registerCount++;
+                }
+            }
+        }
+
+        List<TaggedConfiguration> configurations = new ArrayList<>();
+        List<Integer> kernel = new ArrayList<>();
+        for (TaggedConfiguration configuration : closure) {
+            int[] registers = configuration.registers.clone();
+            for (int tag = 0; tag < tagCount; tag++) {
+                if (registers[tag] == TaggedConfiguration.FRESH) {
+                    registers[tag] = freshRegisters[tag];
+                }
+            }
+            configurations.add(new TaggedConfiguration(configuration.state, registers));
+            kernel.add(configuration.state);
+        }
+
+        List<Integer> candidates = statesByKernel.computeIfAbsent(kernel, k -> new ArrayList<>());
+        for (int candidate : candidates) {
+            Map<Integer, Integer> renaming = findRenaming(configurations, states.get(candidate));
+            if (renaming != null) {
+                registerCount = firstFresh;
+                return new TaggedTransition(candidate,
+                        getOperations(renaming, firstFresh));
+            }
+        }
+
+        int to = states.size();
+        states.add(configurations);
+        candidates.add(to);
+        transitions.add(new TreeMap<>());
+        finalRegisters.add(getFinalRegisters(configurations));
+
+        Map<Integer, Integer> identity = new TreeMap<>();
+        for (int register = firstFresh; register < registerCount; register++) {
+            identity.put(register, register);
+        }
+        return new TaggedTransition(to, getOperations(identity, firstFresh));
+    }
+
+    private static Map<Integer, Integer> findRenaming(List<TaggedConfiguration> configurations,
+                                                      List<TaggedConfiguration> existing) {
+        // A bijection between registers that turns one list of configurations into the other
+        Map<Integer, Integer> forward = new TreeMap<>();
+        Map<Integer, Integer> backward = new TreeMap<>();
+
+        for (int i = 0; i < configurations.size(); i++) {
+            int[] registers = configurations.get(i).registers;
+            int[] existingRegisters = existing.get(i).registers;
+
+            for (int tag = 0; tag < registers.length; tag++) {
+                Integer mapped = forward.putIfAbsent(registers[tag], existingRegisters[tag]);
+                Integer reverse = backward.putIfAbsent(existingRegisters[tag], registers[tag]);
+
+                boolean conflicts = (mapped != null && mapped != existingRegisters[tag])
+                        || (reverse != null && reverse != registers[tag]);
+                if (conflicts) {
+                    return null;
+                }
+            }
+        }
+
+        return forward;
+    }
+
+    @NotNull
+    private static TaggedOperations getOperations(Map<Integer, Integer> renaming, int firstFresh) {
+        List<Integer> destinations = new ArrayList<>();
+        List<Integer> sources = new ArrayList<>();
+
+        for (Map.Entry<Integer, Integer> entry : renaming.entrySet()) {
+            int source = entry.getKey();
+            int destination = entry.getValue();
+
+            if (source >= firstFresh) {
+                destinations.add(destination);
+                sources.add(TDFA.UNSET);
+            } else if (source != destination) {
+                destinations.add(destination);
+                sources.add(source);
+            }
+        }
+
+        return new TaggedOperations(
+                destinations.stream().mapToInt(Integer::intValue).toArray(),
+                sources.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private int[] getFinalRegisters(List<TaggedConfiguration> configurations) {
+        return configurations
+                .stream()
+                .filter(configuration -> configuration.state == tnfa.getFinalState())
+                .map(configuration -> configuration.registers)
+                .findFirst()
+                .orElse(null);
+    }
+}
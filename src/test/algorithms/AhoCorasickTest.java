@@ -0,0 +1,106 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AhoCorasickTest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    private static AhoCorasick build(String... words) {
+        return AhoCorasick.wordsToAhoCorasick(Arrays.asList(words));
+    }
+
+    @Test
+    void wordsToAhoCorasick() {
+        AhoCorasick automaton = build("he", "she", "his", "hers");
+
+        // h, he, her, hers, hi, his, s, sh, she and the root
+        assertEquals(10, automaton.getStateCount());
+        assertTrue(automaton.matches("hers"));
+        assertTrue(automaton.matches("she"));
+        assertFalse(automaton.matches("her"));
+        assertFalse(automaton.matches("shers"));
+        assertFalse(automaton.matches(""));
+    }
+
+    @Test
+    void longestMatch() {
+        AhoCorasick automaton = build("he", "hers");
+
+        assertEquals(4, automaton.longestMatch("hersh", 0));
+        assertEquals(3, automaton.longestMatch("xhex", 1));
+        assertEquals(Matcher.NO_MATCH, automaton.longestMatch("shers", 0));
+        assertEquals(Matcher.NO_MATCH, automaton.longestMatch("xhex", 0));
+    }
+
+    @Test
+    void longestMatchEmptyWord() {
+        AhoCorasick automaton = build("", "ab");
+
+        assertEquals(0, automaton.longestMatch("ac", 0));
+        assertEquals(2, automaton.longestMatch("ab", 0));
+        assertTrue(automaton.matches(""));
+    }
+
+    @Test
+    void find() {
+        AhoCorasick automaton = build("he", "she", "his", "hers");
+
+        // she and hers overlap, and she starts first
+        assertArrayEquals(new int[]{1, 4}, automaton.find("ushers", 0));
+        assertArrayEquals(new int[]{2, 6}, automaton.find("ushers", 2));
+        assertArrayEquals(new int[]{3, 6}, automaton.find("xyzhis", 0));
+        assertNull(automaton.find("hxsx", 0));
+    }
+
+    @Test
+    void findLongestAtSameStart() {
+        AhoCorasick automaton = build("ab", "abcd", "bc");
+        assertArrayEquals(new int[]{0, 4}, automaton.find("abcde", 0));
+        assertArrayEquals(new int[]{0, 2}, automaton.find("abce", 0));
+    }
+
+    private static Set<String> getLiterals(String regex) {
+        return RegexNode.parse(regex).accept(new RegexLiterals());
+    }
+
+    @Test
+    void regexLiterals() {
+        assertEquals(Set.of("cat", "dog"), getLiterals("(cat)|(dog)"));
+
+        // | binds tighter than concatenation, so this is a(b|c)
+        assertEquals(Set.of("ab", "ac"), getLiterals("ab|c"));
+        assertEquals(Set.of("abab", "ab"), getLiterals("((ab){2})|(ab)"));
+        assertNull(getLiterals("(cat)|(do)*"));
+        assertNull(getLiterals("a{1,2}"));
+    }
+
+    @Test
+    void compileLiterals() {
+        assertTrue(Matcher.compile("(cat)|(dog)|(cow)") instanceof AhoCorasick);
+        assertTrue(Matcher.compile("(cat)|(dog)*") instanceof CompiledDFA);
+    }
+
+    @Test
+    void compileAgreesWithDFA() {
+        String regex = "(if)|(else)|(elif)|(in)|(int)|(i)";
+        Matcher literals = Matcher.compile(regex);
+        Matcher dfa = CompiledDFA.DFAtoCompiledDFA(
+                DFA.regexToMinDFA(regex));
+        String[] inputs = {"if", "else", "elif", "elifx", "int", "in", "i", "", "inte", "xif"};
+
+        for (String input : inputs) {
+            assertEquals(dfa.matches(input), literals.matches(input), input);
+            assertEquals(dfa.longestMatch(input, 0), literals.longestMatch(input, 0), input);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteDFATest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    private static ByteDFA compile(String regex) {
+        return ByteDFA.DFAtoByteDFA(DFA.regexToMinDFA(regex));
+    }
+
+    private static byte[] utf8(String input) {
+        return input.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void DFAtoByteDFAAscii() {
+        ByteDFA byteDfa = compile("(a|b)a*b");
+
+        assertTrue(byteDfa.matches(utf8("ab")));
+        assertTrue(byteDfa.matches(utf8("baaab")));
+        assertFalse(byteDfa.matches(utf8("a")));
+        assertFalse(byteDfa.matches(utf8("abc")));
+        assertFalse(byteDfa.matches(utf8("")));
+    }
+
+    @Test
+    void DFAtoByteDFASharedLeadByte() {
+        // é is C3 A9 and ê is C3 AA, so both sequences go through one lead byte
+        ByteDFA byteDfa = compile("(é|ê)x");
+
+        assertTrue(byteDfa.matches(utf8("éx")));
+        assertTrue(byteDfa.matches(utf8("êx")));
+        assertFalse(byteDfa.matches(utf8("ex")));
+        assertFalse(byteDfa.matches(new byte[]{(byte) 0xC3, 'x'}));
+        assertEquals(4, byteDfa.getStateCount());
+    }
+
+    @Test
+    void DFAtoByteDFASharedSuffix() {
+        // é is C3 A9 and ʩ is CA A9, so the continuation byte is shared
+        ByteDFA byteDfa = compile("(é|ʩ)");
+
+        assertTrue(byteDfa.matches(utf8("é")));
+        assertTrue(byteDfa.matches(utf8("ʩ")));
+        assertEquals(3, byteDfa.getStateCount());
+    }
+
+    @Test
+    void DFAtoByteDFASupplementary() {
+        String emoji = new String(Character.toChars(0x1F600));
+        ByteDFA byteDfa = compile("(" + emoji + ")*a");
+
+        assertTrue(byteDfa.matches(utf8("a")));
+        assertTrue(byteDfa.matches(utf8(emoji + emoji + "a")));
+        assertFalse(byteDfa.matches(utf8(emoji)));
+
+        // Surrogates encoded one at a time (CESU-8) are not valid UTF-8
+        byte[] cesu = {
+                (byte) 0xED, (byte) 0xA0, (byte) 0xBD,
+                (byte) 0xED, (byte) 0xB8, (byte) 0x80,
+                'a'
+        };
+        assertFalse(byteDfa.matches(cesu));
+    }
+
+    @Test
+    void matchesByteBuffer() {
+        ByteDFA byteDfa = compile("a(a|b)*b");
+        ByteBuffer buffer = ByteBuffer.wrap(utf8("xxaabb"));
+        buffer.position(2);
+
+        assertTrue(byteDfa.matches(buffer));
+        assertEquals(2, buffer.position());
+
+        buffer.position(1);
+        assertFalse(byteDfa.matches(buffer));
+    }
+
+    @Test
+    void matchesWithOffset() {
+        ByteDFA byteDfa = compile("ab");
+        byte[] input = utf8("xabx");
+
+        assertTrue(byteDfa.matches(input, 1, 2));
+        assertFalse(byteDfa.matches(input, 0, 3));
+    }
+
+    @Test
+    void encode() {
+        assertArrayEquals(new int[]{0x24}, ByteDFA.encode(0x24));
+        assertArrayEquals(new int[]{0xC2, 0xA2}, ByteDFA.encode(0xA2));
+        assertArrayEquals(new int[]{0xE2, 0x82, 0xAC}, ByteDFA.encode(0x20AC));
+        assertArrayEquals(new int[]{0xF0, 0x90, 0x8D, 0x88}, ByteDFA.encode(0x10348));
+    }
+}
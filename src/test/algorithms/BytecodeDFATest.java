@@ -0,0 +1,81 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BytecodeDFATest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    @Test
+    void DFAtoBytecodeDFA() {
+        Matcher matcher = BytecodeDFA.DFAtoBytecodeDFA(DFA.regexToMinDFA("(a|b)a*b"));
+
+        assertFalse(matcher instanceof CompiledDFA);
+        assertTrue(matcher.matches("ab"));
+        assertTrue(matcher.matches("baaab"));
+        assertFalse(matcher.matches("a"));
+        assertFalse(matcher.matches("abc"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void DFAtoBytecodeDFAAgreesWithCompiledDFA() {
+        // A dense range of letters gets a tableswitch, the sparse ones a lookupswitch
+        String regex = "#(a|b|c|d|e|f| |é)*#(x{2,3}|y)*";
+        DFA minDfa = DFA.regexToMinDFA(regex);
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(minDfa);
+        Matcher generated = BytecodeDFA.DFAtoBytecodeDFA(minDfa);
+        String[] inputs = {"##", "#abc  fed#", "#a é b#xxy", "#a#xxxx", "#a#xxxxx", "#ab", "a#",
+                "#   #yxx", "#Z#", ""};
+
+        for (String input : inputs) {
+            assertEquals(compiled.matches(input), generated.matches(input), input);
+            for (int from = 0; from <= input.length(); from++) {
+                assertEquals(compiled.longestMatch(input, from),
+                        generated.longestMatch(input, from), input + " from " + from);
+            }
+        }
+    }
+
+    @Test
+    void DFAtoBytecodeDFATooLargeToCompile() {
+        // A chain of a thousand states would be too long for the JIT, so a table is used instead
+        DFA chain = DFA.wordsToMinDFA(Collections.singletonList("ab".repeat(500)));
+        Matcher matcher = BytecodeDFA.DFAtoBytecodeDFA(chain);
+
+        assertTrue(matcher instanceof CompiledDFA);
+        assertTrue(matcher.matches("ab".repeat(500)));
+        assertFalse(BytecodeDFA.DFAtoBytecodeDFA(
+                DFA.wordsToMinDFA(Collections.singletonList("ab".repeat(20))))
+                instanceof CompiledDFA);
+    }
+
+    @Test
+    void longestMatch() {
+        Matcher matcher = BytecodeDFA.DFAtoBytecodeDFA(DFA.regexToMinDFA("a(b)*"));
+
+        assertEquals(4, matcher.longestMatch("xabbc", 1));
+        assertEquals(Matcher.NO_MATCH, matcher.longestMatch("xabbc", 0));
+        assertEquals(6, matcher.longestMatch("xxabbb", 2));
+    }
+
+    @Test
+    void generate() {
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(DFA.regexToMinDFA("ab*"));
+        byte[] bytes = BytecodeDFA.generate(compiled, "algorithms/Example");
+
+        assertEquals((byte) 0xCA, bytes[0]);
+        assertEquals((byte) 0xFE, bytes[1]);
+        assertEquals((byte) 0xBA, bytes[2]);
+        assertEquals((byte) 0xBE, bytes[3]);
+        assertEquals(49, bytes[7]);
+    }
+}
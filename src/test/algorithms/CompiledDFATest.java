@@ -0,0 +1,106 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledDFATest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    private static CompiledDFA compile(String regex) {
+        return CompiledDFA.DFAtoCompiledDFA(DFA.regexToMinDFA(regex));
+    }
+
+    @Test
+    void matches() {
+        CompiledDFA compiled = compile("(a|b)a*b");
+
+        assertTrue(compiled.matches("ab"));
+        assertTrue(compiled.matches("baaab"));
+        assertFalse(compiled.matches("a"));
+        assertFalse(compiled.matches("abc"));
+        assertFalse(compiled.matches(""));
+    }
+
+    @Test
+    void matchesAgreesWithNFA() {
+        String regex = "#(a|b|c| |é)*#(x{2,3}|y)*";
+        NFA nfa = NFA.regexToNFA(regex);
+        CompiledDFA compiled = compile(regex);
+        String[] inputs = {"##", "#abc  cba#", "#a é b#xxy", "#a#xxxx", "#a#xxxxx", "#ab", "a#",
+                "#   #yxx", "#Z#", ""};
+
+        for (String input : inputs) {
+            assertEquals(nfa.accepts(input), compiled.matches(input), input);
+        }
+    }
+
+    @Test
+    void accelerateSelfLoops() {
+        CompiledDFA compiled = compile("#(a|b| )*#");
+        int start = compiled.getStart();
+        int body = compiled.step(start, '#');
+
+        assertFalse(compiled.isAccelerated(start));
+        assertTrue(compiled.isAccelerated(body));
+
+        String input = "#ab ba b#";
+        assertEquals(input.length() - 1, compiled.skipLoop(body, input, 1, input.length()));
+        assertEquals(1, compiled.skipLoop(start, input, 1, input.length()));
+    }
+
+    @Test
+    void accelerateOnlyWideLoops() {
+        // The state after x loops on one letter of six, so the table is used as is
+        CompiledDFA compiled = compile("x(a)*(b|c|d|e)");
+        int afterX = compiled.step(compiled.getStart(), 'x');
+
+        assertFalse(compiled.isAccelerated(afterX));
+        assertTrue(compiled.matches("xaaaaaaaab"));
+    }
+
+    @Test
+    void accelerateFourAtATime() {
+        // Runs that end at every position within a group of four
+        CompiledDFA compiled = compile("#(a|b| )*#");
+        int body = compiled.step(compiled.getStart(), '#');
+        for (int run = 0; run < 12; run++) {
+            String input = "#" + "ab ".repeat(4).substring(0, run) + "#ab";
+            assertEquals(run + 1, compiled.skipLoop(body, input, 1, input.length()), input);
+            assertEquals(run + 1, compiled.skipLoop(body, input, 1, run + 1), input);
+        }
+    }
+
+    @Test
+    void accelerateStopsOutsideAscii() {
+        // é loops too, but through the table rather than the mask
+        CompiledDFA compiled = compile("#(a|é)*#");
+        int body = compiled.step(compiled.getStart(), '#');
+        String input = "#aaéaa#";
+
+        assertEquals(3, compiled.skipLoop(body, input, 1, input.length()));
+        assertTrue(compiled.matches(input));
+    }
+
+    @Test
+    void longestMatch() {
+        CompiledDFA compiled = compile("a(b)*");
+
+        assertEquals(4, compiled.longestMatch("xabbc", 1));
+        assertEquals(Matcher.NO_MATCH, compiled.longestMatch("xabbc", 0));
+        assertEquals(6, compiled.longestMatch("xxabbb", 2));
+    }
+
+    @Test
+    void longestMatchEmpty() {
+        CompiledDFA compiled = compile("a*");
+
+        assertEquals(0, compiled.longestMatch("b", 0));
+        assertEquals(3, compiled.longestMatch("aaab", 0));
+    }
+}
@@ -0,0 +1,112 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CorpusScannerTest {
+    @TempDir
+    Path root;
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    private void write(String file, String content) throws IOException {
+        Path path = root.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void scan() throws IOException {
+        write("a.txt", "xxabbxabb");
+        write("nested/b.txt", "ab");
+        write("nested/deeper/c.txt", "abé abb");
+        write("nested/d.txt", "nothing here");
+
+        CorpusResult result = CorpusScanner.regexToCorpusScanner("a(b)*").scan(root);
+
+        assertEquals(4, result.getFileCount());
+        assertEquals(3, result.getMatches().size());
+        assertEquals(Arrays.asList(3L, 4L, 5L, 7L, 8L, 9L),
+                result.getMatches().get(root.resolve("a.txt")));
+        assertEquals(Arrays.asList(1L, 2L), result.getMatches().get(root.resolve("nested/b.txt")));
+        assertEquals(13, result.getMatchCount());
+        assertTrue(result.getFailures().isEmpty());
+    }
+
+    @Test
+    void scanAcrossBuffers() throws IOException {
+        // The match straddles the end of the first block read from the file
+        String padding = "x".repeat(CorpusWorker.BUFFER - 2);
+        write("large.txt", padding + "#ab#");
+
+        CorpusResult result = CorpusScanner.regexToCorpusScanner("#(a|b)*#").scan(root);
+        List<Long> ends = result.getMatches().get(root.resolve("large.txt"));
+
+        assertEquals(List.of((long) padding.length() + 4), ends);
+    }
+
+    @Test
+    void scanUnreadableDirectory() throws IOException {
+        // Permissions are not enforced for root, and not every file system has them
+        assumeTrue(root.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        write("a.txt", "ab");
+        write("locked/b.txt", "ab");
+        write("open/c.txt", "ab");
+        Path locked = root.resolve("locked");
+
+        Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("---------"));
+        try {
+            assumeFalse(Files.isReadable(locked));
+            CorpusResult result = CorpusScanner.regexToCorpusScanner("ab").scan(root);
+
+            assertEquals(2, result.getFileCount());
+            assertEquals(Set.of(root.resolve("a.txt"), root.resolve("open/c.txt")),
+                    result.getMatches().keySet());
+            assertEquals(Set.of(locked), result.getFailures());
+        } finally {
+            Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("rwx------"));
+        }
+    }
+
+    @Test
+    void scanParallelAgreesWithSequential() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            write("dir" + i % 5 + "/file" + i + ".txt", "ab".repeat(i) + "c" + "abc".repeat(i % 3));
+        }
+        CorpusScanner scanner = CorpusScanner.regexToCorpusScanner("(ab)*c");
+
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        CorpusResult sequential;
+        CorpusResult parallel;
+        try {
+            sequential = scanner.scan(root, one);
+            parallel = scanner.scan(root, four);
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+
+        assertEquals(50, parallel.getFileCount());
+        assertEquals(sequential.getMatches(), parallel.getMatches());
+        assertEquals(sequential.getMatchCount(), parallel.getMatchCount());
+    }
+}
@@ -41,6 +41,18 @@ class DFAStateTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void convertToStateLabel() {
+        DFAState dfaState = new DFAState(1, makeStates(3, 2));
+        State first = dfaState.convertToState();
+        State second = dfaState.convertToState();
+
+        assertEquals(first, second);
+        assertEquals("{2, 3}", first.getAlternativeLabel());
+        assertNull(new State(1).getAlternativeLabel());
+        assertNotEquals(new State(1), first);
+    }
+
     @Test
     void isEmpty() {
         DFAState dfaState = new DFAState(0, new States());
@@ -3,9 +3,13 @@ package algorithms;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import static algorithms.FSA.EPSILON;
 import static algorithms.Utility.*;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class DFATest {
 
@@ -786,4 +790,159 @@ class DFATest {
         DFA actual = DFA.DFAtoMinDFA(dfa);
         assertEquals(expected, actual);
     }
+
+    @Test
+    void wordsToMinDFA() {
+        // The a and o branches accept the same suffixes, so they share one state
+        DFA expected = makeDFA(
+                makeAlphabet('a', 'o', 'p', 's', 't'),
+                makeStates(0, 1, 2, 3, 4),
+                new State(0),
+                makeStates(3, 4),
+                makeMoves(
+                        makeMove(0, 't', 1),
+                        makeMove(1, 'a', 2),
+                        makeMove(1, 'o', 2),
+                        makeMove(2, 'p', 3),
+                        makeMove(3, 's', 4)
+                )
+        );
+        DFA actual = DFA.wordsToMinDFA(Arrays.asList("tap", "taps", "top", "tops"));
+        assertEquals(expected, actual);
+        assertNull(actual.getPhi());
+    }
+
+    @Test
+    void wordsToMinDFAMatchesMinDFA() {
+        List<String> words = Arrays.asList("", "car", "card", "cards", "cart", "cat", "cats",
+                "cot", "cots", "dart", "darts", "dot", "dots");
+        DFA dictionary = DFA.wordsToMinDFA(words);
+        String regex = "ɛ|(car)|(card)|(cards)|(cart)|(cat)|(cats)|(cot)|(cots)|(dart)|(darts)|" +
+                "(dot)|(dots)";
+        DFA minDfa = DFA.regexToMinDFA(regex);
+
+        // The minimal DFA from a regular expression also has a phi state
+        assertEquals(minDfa.getStates().size() - 1, dictionary.getStates().size());
+
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(dictionary);
+        for (String word : words) {
+            assertTrue(compiled.matches(word), word);
+        }
+        assertFalse(compiled.matches("ca"));
+        assertFalse(compiled.matches("dartss"));
+        assertFalse(compiled.matches("cod"));
+    }
+
+    @Test
+    void wordsToMinDFAUnsorted() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DFA.wordsToMinDFA(Arrays.asList("b", "a")));
+        assertEquals(2, DFA.wordsToMinDFA(Arrays.asList("a", "a")).getStates().size());
+    }
+
+    @Test
+    void DFAtoPartialMinDFA() {
+        DFA dfa = DFA.NFAtoPartialDFA(NFA.regexToNFA("(a|b)a*b"));
+        DFA expected = makeDFA(
+                makeAlphabet('a', 'b'),
+                makeStates(0, 1, 2),
+                new State(0),
+                makeStates(2),
+                makeMoves(
+                        makeMove(0, 'a', 1),
+                        makeMove(0, 'b', 1),
+                        makeMove(1, 'a', 1),
+                        makeMove(1, 'b', 2)
+                )
+        );
+        DFA actual = DFA.DFAtoPartialMinDFA(dfa);
+
+        assertEquals(expected.getStates().toString(), actual.getStates().toString());
+        assertEquals(expected.getFinalStates().toString(), actual.getFinalStates().toString());
+        assertEquals(expected.getMoves().size(), actual.getMoves().size());
+        assertNull(actual.getPhi());
+    }
+
+    @Test
+    void DFAtoPartialMinDFAMatchesMinDFA() {
+        String[] regexes = {"(a|b)*a(a|b){3}", "((ab)|(ba))*c{1,3}", "x(y|z)*(yz)", "a*b*c*",
+                "(cat)|(cart)|(dog)|(dot)", ""};
+        Random random = new Random(498);
+
+        for (String regex : regexes) {
+            NFA nfa = NFA.regexToNFA(regex);
+            DFA minDfa = DFA.DFAtoMinDFA(DFA.NFAtoDFA(nfa));
+            DFA partialDfa = DFA.NFAtoPartialDFA(nfa);
+            DFA partialMinDfa = DFA.DFAtoPartialMinDFA(partialDfa);
+
+            int phiStates = minDfa.getPhi() != null ? 1 : 0;
+            assertEquals(minDfa.getStates().size() - phiStates,
+                    partialMinDfa.getStates().size(), regex);
+            assertTrue(partialMinDfa.getMoves().size() <= minDfa.getMoves().size(), regex);
+
+            CompiledDFA expected = CompiledDFA.DFAtoCompiledDFA(minDfa);
+            CompiledDFA actual = CompiledDFA.DFAtoCompiledDFA(partialMinDfa);
+            for (int i = 0; i < 200; i++) {
+                String input = randomString(random, "abcdotrxyz", random.nextInt(8));
+                assertEquals(expected.matches(input), actual.matches(input), regex + " " + input);
+            }
+        }
+    }
+
+    @Test
+    void DFAtoPartialMinDFAOfCompleteDFA() {
+        // Moves into phi are dropped, as well as phi itself
+        DFA dfa = DFA.NFAtoDFA(NFA.regexToNFA("ab|c"));
+        DFA partialMinDfa = DFA.DFAtoPartialMinDFA(dfa);
+
+        assertEquals(3, partialMinDfa.getStates().size());
+        assertEquals(3, partialMinDfa.getMoves().size());
+    }
+
+    @Test
+    void NFAtoDFAParallel() {
+        // States are numbered level by level: the start, then a and b, then a* and the final b
+        DFA dfa = DFA.NFAtoDFAParallel(NFA.regexToNFA("(a|b)a*b"));
+
+        assertEquals("[0, 1, 2, 3, 4, 5]", dfa.getStates().toString());
+        assertEquals(5, dfa.getPhi().getId());
+        assertEquals("[4]", dfa.getFinalStates().toString());
+        assertEquals(12, dfa.getMoves().size());
+    }
+
+    @Test
+    void NFAtoDFAParallelMatchesNFAtoDFA() {
+        String[] regexes = {"(a|b)*a(a|b){6}", "((ab)|(ba))*c{1,3}", "x(y|z)*(yz)", "a*b*c*",
+                "(cat)|(cart)|(dog)|(dot)", ""};
+        Random random = new Random(498);
+
+        for (String regex : regexes) {
+            NFA nfa = NFA.regexToNFA(regex);
+            DFA expected = DFA.NFAtoDFA(nfa);
+            DFA actual = DFA.NFAtoDFAParallel(nfa);
+
+            assertEquals(expected.getStates().size(), actual.getStates().size(), regex);
+            assertEquals(expected.getFinalStates().size(), actual.getFinalStates().size(), regex);
+            assertEquals(expected.getMoves().size(), actual.getMoves().size(), regex);
+
+            // Ids do not depend on how the work was scheduled
+            assertEquals(actual.toDOT(), DFA.NFAtoDFAParallel(nfa).toDOT(), regex);
+
+            CompiledDFA expectedMatcher = CompiledDFA.DFAtoCompiledDFA(expected);
+            CompiledDFA actualMatcher = CompiledDFA.DFAtoCompiledDFA(actual);
+            for (int i = 0; i < 200; i++) {
+                String input = randomString(random, "abcdotrxyz", random.nextInt(10));
+                assertEquals(expectedMatcher.matches(input), actualMatcher.matches(input),
+                        regex + " " + input);
+            }
+        }
+    }
+
+    private static String randomString(Random random, String letters, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(letters.charAt(random.nextInt(letters.length())));
+        }
+        return sb.toString();
+    }
 }
\ No newline at end of file
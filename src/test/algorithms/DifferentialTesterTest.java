@@ -0,0 +1,91 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DifferentialTesterTest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    @Test
+    void run() {
+        DifferentialTester tester = new DifferentialTester(498, "ab", 3, 10, 8);
+        DifferentialReport report = tester.run(DifferentialTester.WARMUP + 100);
+
+        assertEquals(List.of(), report.getMismatches());
+        assertTrue(report.getEngines().contains("NFA.accepts"));
+        assertTrue(report.getEngines().contains("longest Searcher"));
+        assertTrue(report.getEngines().contains("longest Lexer"));
+        assertTrue(report.getEngines().contains("AhoCorasick"));
+        assertTrue(report.getEngines().contains("ScannerGenerator"));
+        assertTrue(report.getEngines().contains("ends StreamMatcher chars"));
+        assertTrue(report.getEngines().contains("ends StreamMatcher bytes"));
+    }
+
+    @Test
+    void runCatchesBrokenEngine() {
+        DifferentialTester tester = new DifferentialTester(498, "ab", 2, 10, 4);
+        tester.addAcceptor("nothing", regex -> inputs -> new boolean[inputs.length]);
+        tester.addLongestMatcher("throws", regex -> {
+            throw new IllegalStateException("Not built");
+        });
+        tester.addEndFinder("no ends", regex -> input -> new boolean[input.length() + 1]);
+        DifferentialReport report = tester.run(20);
+
+        assertTrue(report.getMismatches().stream().anyMatch(m -> m.startsWith("nothing on ")));
+        assertTrue(report.getMismatches().stream()
+                .anyMatch(m -> m.startsWith("longest throws on ") && m.contains("Not built")));
+        assertTrue(report.getMismatches().stream().anyMatch(m -> m.startsWith("ends no ends on ")));
+    }
+
+    @Test
+    void nextRegex() {
+        /* Every part is parenthesized, so the regex parses the same under either precedence.
+        java.util.regex rejects stacked postfix operators like a*{2,}, so those are skipped. */
+        DifferentialTester tester = new DifferentialTester(7, "ab", 4, 10, 6);
+        for (int i = 0; i < 100; i++) {
+            String regex = tester.nextRegex();
+            if (regex.matches(".*[*}][*{].*")) {
+                continue;
+            }
+            Pattern literal = Pattern.compile(regex.replace("()", "(?:)"));
+            Pattern translated = Pattern.compile(DifferentialTester.toJavaRegex(regex));
+            for (String input : tester.nextInputs()) {
+                assertEquals(literal.matcher(input).matches(),
+                        translated.matcher(input).matches(), regex + " with " + input);
+            }
+        }
+    }
+
+    @Test
+    void toJavaRegex() {
+        assertEquals("a(?:b|c)", DifferentialTester.toJavaRegex("ab|c"));
+        assertEquals("(?:a|b)*c{2,3}", DifferentialTester.toJavaRegex("(a|b)*c{2,3}"));
+        assertEquals("(?:ab)(?:c*){1,}", DifferentialTester.toJavaRegex("(ab)c*{1,}"));
+        assertEquals("(?:(?:))*", DifferentialTester.toJavaRegex("()*"));
+        assertEquals("\\x{e9}\\x{23}", DifferentialTester.toJavaRegex("é#"));
+    }
+
+    @Test
+    void getCliffs() {
+        DifferentialReport report = new DifferentialReport();
+        for (int i = 0; i < 10; i++) {
+            report.recordTime("engine", "a" + i, 100_000);
+        }
+        report.recordTime("engine", "slow", 100 * 100_000);
+        report.recordTime("engine", "fast", 10);
+
+        List<String> cliffs = report.getCliffs();
+        assertEquals(1, cliffs.size());
+        assertTrue(cliffs.get(0).startsWith("engine on slow: 10000 us"));
+        assertEquals(100_000, report.getMedianTime("engine"));
+    }
+}
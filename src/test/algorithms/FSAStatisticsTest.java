@@ -0,0 +1,65 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FSAStatisticsTest {
+    FSAStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+        statistics = new FSAStatistics();
+        FSA.getStructures("(a|b)a*b", statistics);
+    }
+
+    @Test
+    void recordCounts() {
+        assertEquals(12, statistics.getNFAStates());
+        assertEquals(14, statistics.getNFAMoves());
+
+        // One closure for the start, then one per DFA state (other than phi) and character
+        int dfaStatesWithoutPhi = statistics.getDFAStates() - 1;
+        assertEquals(1 + 2 * dfaStatesWithoutPhi, statistics.getEpsilonClosures());
+
+        assertEquals(4, statistics.getMinDFAStates());
+        assertEquals(8, statistics.getMinDFAMoves());
+    }
+
+    @Test
+    void recordMinimizationRounds() {
+        assertEquals(statistics.getPartitionSizes().size(), statistics.getMinimizationRounds());
+        assertTrue(statistics.getMinimizationRounds() >= 2);
+
+        int last = statistics.getMinimizationRounds() - 1;
+        assertEquals(4, statistics.getPartitionSizes().get(last));
+    }
+
+    @Test
+    void recordPhases() {
+        assertEquals(
+                Arrays.asList("regexToNFA", "NFAtoDFA", "DFAtoMinDFA"),
+                Arrays.asList(statistics.getPhases().keySet().toArray()));
+
+        for (String phase : statistics.getPhases().keySet()) {
+            assertTrue(statistics.getWallTimeNanos(phase) > 0);
+            assertNotEquals(0, statistics.getAllocatedBytes(phase));
+        }
+    }
+
+    @Test
+    void toJSON() {
+        String json = statistics.toJSON();
+
+        assertTrue(json.startsWith("{"));
+        assertTrue(json.endsWith("}"));
+        assertTrue(json.contains("\"NFAtoDFA\": {\"wallTimeNanos\": "));
+        assertTrue(json.contains("\"nfaStates\": 12,"));
+        assertTrue(json.contains("\"minDfaStates\": 4,"));
+        assertTrue(json.contains("\"partitionSizes\": ["));
+    }
+}
@@ -0,0 +1,88 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FragmentCacheTest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    @Test
+    void regexToNFAAgreesWithThompson() {
+        FragmentCache cache = new FragmentCache(64);
+        String[] regexes = {"(a|b)a*b", "((ab)|(ba))*c{1,3}", "x(y|z)*(yz){2,}", "a{0,2}b", ""};
+        String[] inputs = {"", "ab", "aab", "bab", "abbac", "bacccc", "xyzyzyz", "xyzyz", "b",
+                "aab", "aaab", "ba"};
+
+        for (String regex : regexes) {
+            NFA expected = NFA.regexToNFA(regex);
+            NFA actual = NFA.regexToNFA(regex, cache);
+
+            for (String input : inputs) {
+                assertEquals(expected.accepts(input), actual.accepts(input), regex + " " + input);
+            }
+        }
+    }
+
+    @Test
+    void recompileReusesFragments() {
+        FragmentCache cache = new FragmentCache(64);
+        NFA.regexToNFA("(abc)|(def)|(ghi)", cache);
+        int misses = cache.getMisses();
+
+        // Only the changed alternative, its letters and the alternation itself are new
+        NFA nfa = NFA.regexToNFA("(abc)|(def)|(xyz)", cache);
+        assertEquals(misses + 5, cache.getMisses());
+        assertTrue(cache.getHits() >= 2);
+        assertTrue(nfa.accepts("xyz"));
+        assertFalse(nfa.accepts("ghi"));
+    }
+
+    @Test
+    void fragmentsGetFreshStates() {
+        FragmentCache cache = new FragmentCache(64);
+        NFA first = NFA.regexToNFA("ab", cache);
+        NFA second = NFA.regexToNFA("ab", cache);
+
+        assertEquals(first.getStates().size(), second.getStates().size());
+        assertTrue(first.getStates().last().getId() < second.getStates().first().getId());
+    }
+
+    @Test
+    void getMinDFA() {
+        FragmentCache cache = new FragmentCache(64);
+        DFA first = cache.getMinDFA("(a|b)*abb");
+
+        // Groups are simplified away, so both patterns have the same key and share moves
+        DFA cached = cache.getMinDFA("((a|b))*abb");
+        assertSame(first.getMoves().first(), cached.getMoves().first());
+        assertNotSame(first.getMoves().first(), cache.getMinDFA("(b|a)*abb").getMoves().first());
+    }
+
+    @Test
+    void getMinDFAReturnsCopies() {
+        FragmentCache cache = new FragmentCache(64);
+        DFA first = cache.getMinDFA("ab");
+        int moveCount = first.getMoves().size();
+        first.addState(new State(100));
+        first.addFinalState(new State(100));
+        first.addMove(first.start, 'c', new State(100));
+
+        DFA second = cache.getMinDFA("ab");
+        assertEquals(moveCount, second.getMoves().size());
+        assertFalse(second.getStates().contains(new State(100)));
+        assertFalse(second.getFinalStates().contains(new State(100)));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        FragmentCache cache = new FragmentCache(2);
+        NFA.regexToNFA("abc", cache);
+        assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,109 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalLexerTest {
+    private Lexer lexer;
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+        // Keywords, names, numbers, blanks, newlines and <comments> that may span lines
+        lexer = Lexer.regexesToLexer(Arrays.asList("(if)", "(a|f|i|x)(a|f|i|x|0|1)*",
+                "(0|1)(0|1)*", " ( )*", "\n", "<(a|f|i|x|0|1| |\n)*>"));
+    }
+
+    private void assertRelexed(IncrementalLexer incremental) {
+        assertEquals(lexer.lex(incremental.getText()), incremental.getTokens(),
+                incremental.getText());
+    }
+
+    @Test
+    void editWithinLine() {
+        String line = "if xa 10 fi\n";
+        IncrementalLexer incremental = new IncrementalLexer(lexer, line.repeat(1000));
+        assertEquals(1001, incremental.getLineCount());
+
+        /* Only the ten tokens of the edited line are lexed again, and the newline before it,
+        whose scan looked one letter into the line */
+        int offset = 500 * line.length() + 3;
+        incremental.edit(offset, 2, "xaf ax");
+        assertRelexed(incremental);
+        assertEquals(11, incremental.getLastRelexed());
+
+        incremental.edit(offset, 0, "\n\n");
+        assertRelexed(incremental);
+        assertEquals(1003, incremental.getLineCount());
+        assertEquals(13, incremental.getLastRelexed());
+    }
+
+    @Test
+    void editOpensComment() {
+        IncrementalLexer incremental = new IncrementalLexer(lexer, "if x\nfi 1\nax\n>\nif\n");
+        int start = lexer.getDFA().getStart();
+        assertEquals(start, incremental.getCheckpoint(2));
+
+        // Opening a comment carries on through the lines after it, up to its end
+        incremental.edit(3, 0, "<");
+        assertRelexed(incremental);
+        assertNotEquals(start, incremental.getCheckpoint(2));
+        assertEquals(start, incremental.getCheckpoint(4));
+
+        incremental.edit(3, 1, "");
+        assertRelexed(incremental);
+        assertEquals(start, incremental.getCheckpoint(2));
+    }
+
+    @Test
+    void editReachedByLookahead() {
+        // Lexing a reads on through the next line to look for the longer token
+        Lexer lookahead = Lexer.regexesToLexer(Arrays.asList("a", "b", "\n", "(ab\nc)"));
+        IncrementalLexer incremental = new IncrementalLexer(lookahead, "ab\nx");
+        assertEquals(4, incremental.getTokens().size());
+
+        incremental.edit(3, 1, "c");
+        assertEquals(Arrays.asList(new Token(3, 0, 4)), incremental.getTokens());
+    }
+
+    @Test
+    void editAtEnd() {
+        IncrementalLexer incremental = new IncrementalLexer(lexer, "if\nxa");
+        incremental.edit(5, 0, "f1");
+
+        assertEquals(Arrays.asList(new Token(0, 0, 2), new Token(4, 2, 3), new Token(1, 3, 7)),
+                incremental.getTokens());
+    }
+
+    @Test
+    void editRandomly() {
+        String letters = "afix01 \n<>";
+        Random random = new Random(47);
+        IncrementalLexer incremental = new IncrementalLexer(lexer, "");
+
+        for (int round = 0; round < 2000; round++) {
+            int length = incremental.getText().length();
+            int offset = random.nextInt(length + 1);
+            int removed = random.nextInt(Math.min(3, length - offset) + 1);
+            StringBuilder inserted = new StringBuilder();
+            for (int i = random.nextInt(4); i > 0; i--) {
+                inserted.append(letters.charAt(random.nextInt(letters.length())));
+            }
+
+            incremental.edit(offset, removed, inserted.toString());
+            assertRelexed(incremental);
+        }
+    }
+
+    @Test
+    void editOutsideText() {
+        IncrementalLexer incremental = new IncrementalLexer(lexer, "if");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> incremental.edit(1, 2, ""));
+    }
+}
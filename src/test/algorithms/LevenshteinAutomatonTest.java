@@ -0,0 +1,103 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevenshteinAutomatonTest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    private static int editDistance(String first, String second) {
+        int[][] table = new int[first.length() + 1][second.length() + 1];
+        for (int i = 0; i <= first.length(); i++) {
+            for (int j = 0; j <= second.length(); j++) {
+                if (i == 0 || j == 0) {
+                    table[i][j] = i + j;
+                } else {
+                    int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                    table[i][j] = Math.min(table[i - 1][j - 1] + cost,
+                            Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+                }
+            }
+        }
+        return table[first.length()][second.length()];
+    }
+
+    @Test
+    void toDFA() {
+        LevenshteinAutomaton automaton = new LevenshteinAutomaton("cat", 1);
+        DFA dfa = automaton.toDFA(Arrays.asList('a', 'c', 't', 'x'));
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(dfa);
+
+        assertNull(dfa.getPhi());
+        assertTrue(compiled.matches("cat"));
+        assertTrue(compiled.matches("at"));
+        assertTrue(compiled.matches("cxt"));
+        assertTrue(compiled.matches("catx"));
+        assertFalse(compiled.matches("xxt"));
+        assertFalse(compiled.matches("c"));
+    }
+
+    @Test
+    void toDFAAgreesWithEditDistance() {
+        LevenshteinAutomaton automaton = new LevenshteinAutomaton("abca", 2);
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(
+                automaton.toDFA(Arrays.asList('a', 'b', 'c')));
+        Random random = new Random(498);
+
+        for (int i = 0; i < 500; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                sb.append("abc".charAt(random.nextInt(3)));
+            }
+
+            String input = sb.toString();
+            assertEquals(editDistance("abca", input) <= 2, compiled.matches(input), input);
+        }
+    }
+
+    @Test
+    void intersect() {
+        List<String> words = Arrays.asList("bat", "cab", "cart", "cast", "cat", "cats", "coat",
+                "dog", "scat");
+        DFA dictionary = DFA.wordsToMinDFA(words);
+        LevenshteinAutomaton automaton = new LevenshteinAutomaton("cat", 1);
+        TreeMap<String, Integer> matches = automaton.intersect(dictionary);
+
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        for (String word : words) {
+            int distance = editDistance("cat", word);
+            if (distance <= 1) {
+                expected.put(word, distance);
+            }
+        }
+
+        assertEquals(expected, matches);
+        assertEquals(0, matches.get("cat"));
+        assertFalse(matches.containsKey("dog"));
+    }
+
+    @Test
+    void intersectCyclic() {
+        // The dictionary is infinite, but paths die once every entry of the row is too large
+        DFA dictionary = DFA.regexToMinDFA("ab*");
+        LevenshteinAutomaton automaton = new LevenshteinAutomaton("abbb", 1);
+        TreeMap<String, Integer> matches = automaton.intersect(dictionary);
+
+        assertEquals(Set.of("abb", "abbb", "abbbb"), matches.keySet());
+        assertEquals(1, matches.get("abbbb"));
+    }
+
+    @Test
+    void negativeDistance() {
+        assertThrows(IllegalArgumentException.class, () -> new LevenshteinAutomaton("a", -1));
+    }
+}
@@ -0,0 +1,57 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LexerTest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    @Test
+    void lex() {
+        // Keywords come before identifiers, so if is a keyword but iff is an identifier
+        Lexer lexer = Lexer.regexesToLexer(Arrays.asList("(if)", "(a|f|i|x)(a|f|i|x|0|1)*",
+                "(0|1)(0|1)*", " ( )*"));
+        List<Token> expected = Arrays.asList(
+                new Token(0, 0, 2),
+                new Token(3, 2, 3),
+                new Token(1, 3, 6),
+                new Token(3, 6, 8),
+                new Token(2, 8, 11),
+                new Token(Lexer.ERROR, 11, 12),
+                new Token(1, 12, 14)
+        );
+
+        assertEquals(expected, lexer.lex("if iff  101?x1"));
+    }
+
+    @Test
+    void lexLongestMatchBacksUp() {
+        // Reading abb finds no abc, so the longest token is a and lexing goes on from the first b
+        Lexer lexer = Lexer.regexesToLexer(Arrays.asList("a", "b", "(abc)"));
+        List<Token> expected = Arrays.asList(
+                new Token(0, 0, 1),
+                new Token(1, 1, 2),
+                new Token(1, 2, 3),
+                new Token(2, 3, 6)
+        );
+
+        assertEquals(expected, lexer.lex("abbabc"));
+        assertArrayEquals(new int[]{0, 1, 3}, lexer.scan("abbabc", 0));
+        assertArrayEquals(new int[]{2, 6, 7}, lexer.scan("abbabc", 3));
+    }
+
+    @Test
+    void regexesToLexerRejectsEmptyMatches() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Lexer.regexesToLexer(Arrays.asList("a", "b*")));
+    }
+}
@@ -0,0 +1,63 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiStreamDFATest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    @Test
+    void DFAtoMultiStreamDFA() {
+        MultiStreamDFA batch = MultiStreamDFA.DFAtoMultiStreamDFA(DFA.regexToMinDFA("(a|b)a*b"));
+
+        assertFalse(batch.isVectorized());
+        assertTrue(batch.matchAll(new CharSequence[]{"ab"})[0]);
+    }
+
+    @Test
+    void DFAtoVectorMultiStreamDFA() {
+        // The vector subclass is used whenever the surefire run added its module
+        MultiStreamDFA batch = MultiStreamDFA.DFAtoVectorMultiStreamDFA(
+                DFA.regexToMinDFA("(a|b)a*b"));
+        boolean hasVectors = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        CharSequence[] inputs = {"ab", "baaab", "a", "abc", "", "bé", "aaaaaaaaaaaaaaab", "bb"};
+
+        assertEquals(hasVectors, batch.isVectorized());
+        assertArrayEquals(new boolean[]{true, true, false, false, false, false, true, true},
+                batch.matchAll(inputs));
+    }
+
+    @Test
+    void matchAllAgreesWithScalar() {
+        DFA minDfa = DFA.regexToMinDFA("#(a|b|c| |é)*#(x{2,3}|y)*");
+        MultiStreamDFA scalar = new MultiStreamDFA(CompiledDFA.DFAtoCompiledDFA(minDfa));
+        MultiStreamDFA batch = MultiStreamDFA.DFAtoVectorMultiStreamDFA(minDfa);
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(minDfa);
+
+        // Uneven lengths and a count that does not fill the last batch
+        String letters = "#abc éxyZ";
+        Random random = new Random(48);
+        CharSequence[] inputs = new CharSequence[1003];
+        for (int i = 0; i < inputs.length; i++) {
+            StringBuilder input = new StringBuilder("#");
+            for (int length = random.nextInt(12); length > 0; length--) {
+                input.append(letters.charAt(random.nextInt(letters.length())));
+            }
+            inputs[i] = input;
+        }
+
+        boolean[] expected = scalar.matchAll(inputs);
+        assertArrayEquals(expected, batch.matchAll(inputs));
+        for (int i = 0; i < inputs.length; i++) {
+            assertEquals(compiled.matches(inputs[i]), expected[i], inputs[i].toString());
+        }
+    }
+}
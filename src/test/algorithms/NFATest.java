@@ -3,9 +3,11 @@ package algorithms;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.ForkJoinPool;
+
 import static algorithms.FSA.EPSILON;
 import static algorithms.Utility.*;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class NFATest {
 
@@ -246,6 +248,98 @@ class NFATest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void repeat() {
+        NFA expected = makeNFA(
+                makeAlphabet('a'),
+                makeStates(2, 3, 4, 5, 6),
+                new State(2),
+                makeStates(4),
+                makeMoves(
+                        makeMove(2, 'a', 3),
+                        makeMove(3, EPSILON, 4),
+                        makeMove(3, EPSILON, 5),
+                        makeMove(5, 'a', 6),
+                        makeMove(6, EPSILON, 4)
+                )
+        );
+
+        NFA first = NFA.makeSingle('a');
+        NFA actual = NFA.repeat(first, 1, 2);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void repeatUnbounded() {
+        NFA expected = makeNFA(
+                makeAlphabet('a'),
+                makeStates(2, 3, 4, 5, 6, 7),
+                new State(2),
+                makeStates(7),
+                makeMoves(
+                        makeMove(2, 'a', 3),
+                        makeMove(3, EPSILON, 6),
+                        makeMove(4, 'a', 5),
+                        makeMove(5, EPSILON, 4),
+                        makeMove(5, EPSILON, 7),
+                        makeMove(6, EPSILON, 4),
+                        makeMove(6, EPSILON, 7)
+                )
+        );
+
+        NFA first = NFA.makeSingle('a');
+        NFA actual = NFA.repeat(first, 1, Regex.UNBOUNDED);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void repeatNone() {
+        NFA expected = makeNFA(
+                makeAlphabet(EPSILON),
+                makeStates(2, 3),
+                new State(2),
+                makeStates(3),
+                makeMoves(makeMove(2, EPSILON, 3))
+        );
+
+        NFA first = NFA.makeSingle('a');
+        NFA actual = NFA.repeat(first, 0, 0);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void regexToNFARepetition() {
+        NFA nfa = NFA.regexToNFA("(ab){1000}");
+        assertEquals(4000, nfa.getStates().size());
+
+        DFA minDfa = DFA.regexToMinDFA("a{2,3}b");
+        // 0 to 3 a's read, after b, and phi
+        assertEquals(6, minDfa.getStates().size());
+    }
+
+    @Test
+    void infixToPostfixRepetition() {
+        assertEquals("ab.{2,3}c{1,}|", Regex.infixToPostfix("(ab){2,3}|c{1,}"));
+        assertEquals("(a.b){2,3}|c{1,}", Regex.markWithConcatenation("(ab){2,3}|c{1,}"));
+        assertEquals("a{2}b.", Regex.infixToPostfix("a{2}b"));
+        assertThrows(IllegalArgumentException.class, () -> NFA.regexToNFA("a{3,2}"));
+        assertThrows(IllegalArgumentException.class, () -> NFA.regexToNFA("a{2"));
+    }
+
+    @Test
+    void infixToPostfixStackedPostfixOperators() {
+        // Postfix operators apply left to right, whatever order they are written in
+        assertEquals("a*{2}", Regex.infixToPostfix("a*{2}"));
+        assertEquals("ab.*{2}", Regex.infixToPostfix("(ab)*{2}"));
+        assertEquals("a{2}*", Regex.infixToPostfix("a{2}*"));
+        assertEquals("a*{2}b.", Regex.infixToPostfix("a*{2}b"));
+
+        NFA nfa = NFA.postfixToNFA(Regex.infixToPostfix("(ab)*{2}"));
+        assertTrue(nfa.accepts(""));
+        assertTrue(nfa.accepts("abab"));
+        assertFalse(nfa.accepts("aba"));
+    }
+
     @Test
     void infixToPostfix() {
         String expected = "ab|a*.b.";
@@ -259,4 +353,178 @@ class NFATest {
         String actual = Regex.markWithConcatenation("(a|b)a*b");
         assertEquals(expected, actual);
     }
+
+    @Test
+    void removeEpsilons() {
+        NFA expected = makeNFA(
+                makeAlphabet('a', 'b'),
+                makeStates(1, 3, 4, 7, 11),
+                new State(4),
+                makeStates(11),
+                makeMoves(
+                        makeMove(1, 'a', 7),
+                        makeMove(1, 'b', 11),
+                        makeMove(3, 'a', 7),
+                        makeMove(3, 'b', 11),
+                        makeMove(4, 'a', 1),
+                        makeMove(4, 'b', 3),
+                        makeMove(7, 'a', 7),
+                        makeMove(7, 'b', 11)
+                )
+        );
+        NFA actual = NFA.regexToNFA("(a|b)a*b").removeEpsilons();
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void removeEpsilonsCycle() {
+        // 0 and 1 close over each other, 1 is unreachable without epsilons and 3 is dead
+        NFA nfa = makeNFA(
+                makeAlphabet('a', 'b', EPSILON),
+                makeStates(0, 1, 2, 3),
+                new State(0),
+                makeStates(2),
+                makeMoves(
+                        makeMove(0, EPSILON, 1),
+                        makeMove(1, EPSILON, 0),
+                        makeMove(1, 'a', 2),
+                        makeMove(0, 'b', 3)
+                )
+        );
+        NFA expected = makeNFA(
+                makeAlphabet('a', 'b'),
+                makeStates(0, 2),
+                new State(0),
+                makeStates(2),
+                makeMoves(
+                        makeMove(0, 'a', 2)
+                )
+        );
+        assertEquals(expected, nfa.removeEpsilons());
+    }
+
+    @Test
+    void removeEpsilonsKeepsLanguage() {
+        NFA nfa = NFA.regexToNFA("((ab)*|c{1,2})*d");
+        NFA epsilonFree = nfa.removeEpsilons();
+        String[] inputs = {"d", "abd", "ccd", "cabccd", "", "ab", "abad", "cd"};
+
+        for (String input : inputs) {
+            assertEquals(nfa.accepts(input), epsilonFree.accepts(input), input);
+        }
+        assertTrue(epsilonFree.accepts("abcabd"));
+        assertTrue(epsilonFree.getMoves().stream().noneMatch(move -> move.hasConsumed(EPSILON)));
+        assertTrue(epsilonFree.getStates().size() < nfa.getStates().size());
+    }
+
+    @Test
+    void reduceByBisimulation() {
+        // 1 and 2 both accept b next, and 3 and 4 are both final dead ends
+        NFA nfa = makeNFA(
+                makeAlphabet('a', 'b'),
+                makeStates(0, 1, 2, 3, 4),
+                new State(0),
+                makeStates(3, 4),
+                makeMoves(
+                        makeMove(0, 'a', 1),
+                        makeMove(0, 'a', 2),
+                        makeMove(1, 'b', 3),
+                        makeMove(2, 'b', 4)
+                )
+        );
+        NFA expected = makeNFA(
+                makeAlphabet('a', 'b'),
+                makeStates(0, 1, 3),
+                new State(0),
+                makeStates(3),
+                makeMoves(
+                        makeMove(0, 'a', 1),
+                        makeMove(1, 'b', 3)
+                )
+        );
+        assertEquals(expected, nfa.reduceByBisimulation());
+    }
+
+    @Test
+    void reduceByBisimulationBackwards() {
+        // 1 and 2 accept different words but are reached the same way once 3 and 4 merge
+        NFA nfa = makeNFA(
+                makeAlphabet('a', 'b', 'c'),
+                makeStates(0, 1, 2, 3, 4),
+                new State(0),
+                makeStates(3, 4),
+                makeMoves(
+                        makeMove(0, 'a', 1),
+                        makeMove(0, 'a', 2),
+                        makeMove(1, 'b', 3),
+                        makeMove(2, 'c', 4)
+                )
+        );
+        NFA expected = makeNFA(
+                makeAlphabet('a', 'b', 'c'),
+                makeStates(0, 1, 3),
+                new State(0),
+                makeStates(3),
+                makeMoves(
+                        makeMove(0, 'a', 1),
+                        makeMove(1, 'b', 3),
+                        makeMove(1, 'c', 3)
+                )
+        );
+        assertEquals(expected, nfa.reduceByBisimulation());
+    }
+
+    @Test
+    void reduceByBisimulationKeepsLanguage() {
+        NFA nfa = NFA.regexToNFA("((abc)|(xbc)|(abd))*e");
+        NFA reduced = nfa.removeEpsilons().reduceByBisimulation();
+        String[] inputs = {"e", "abce", "xbcabde", "abcxbce", "abe", "xbde", "", "abc"};
+
+        for (String input : inputs) {
+            assertEquals(nfa.accepts(input), reduced.accepts(input), input);
+        }
+        assertTrue(reduced.getStates().size() < nfa.removeEpsilons().getStates().size());
+    }
+
+    @Test
+    void regexToNFAParallelKeepsLanguage() {
+        String regex = "#(a|b|c| )*#(x{2,3}|y)*";
+        NFA nfa = NFA.regexToNFA(regex);
+        NFA parallel = NFA.regexToNFAParallel(regex);
+        String[] inputs = {"##", "#abc  cba#", "#a b#xxy", "#a#xxxx", "#a#xxxxx", "#ab", "a#", ""};
+
+        for (String input : inputs) {
+            assertEquals(nfa.accepts(input), parallel.accepts(input), input);
+        }
+    }
+
+    @Test
+    void regexToNFAParallelLarge() {
+        // Enough alternatives that each of the larger subtrees becomes its own task
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            regex.append(i == 0 ? "" : "|").append("(").append(Integer.toString(i, 3)).append(")");
+        }
+        String large = "(" + regex + ")*#" + "(" + regex + ")";
+
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        NFA sequential;
+        NFA parallel;
+        try {
+            State.setIdCounter(0);
+            sequential = ParallelThompson.regexToNFA(large, one);
+            State.setIdCounter(0);
+            parallel = ParallelThompson.regexToNFA(large, four);
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+
+        assertEquals(sequential, parallel);
+        assertTrue(parallel.accepts("12#210"));
+        assertTrue(parallel.accepts("#0"));
+        assertFalse(parallel.accepts("12#"));
+        assertFalse(parallel.accepts("3#0"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegexNodeTest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    private static String simplify(String regex) {
+        return RegexNode.parse(regex).simplify().toPostfix();
+    }
+
+    @Test
+    void equalsIsStructural() {
+        assertEquals(RegexNode.parse("a(b|c)*"), RegexNode.parse("a(b|c)*"));
+        assertEquals(RegexNode.parse("a(b|c)*").hashCode(), RegexNode.parse("a(b|c)*").hashCode());
+        assertNotEquals(RegexNode.parse("a(b|c)*"), RegexNode.parse("a(c|b)*"));
+        assertNotEquals(RegexNode.parse("a{1,2}"), RegexNode.parse("a{1,3}"));
+    }
+
+    @Test
+    void equalsOnDeepTrees() {
+        // Hashes are computed while building, so neither tree is rehashed below
+        String deep = "(a".repeat(1000) + ")*".repeat(1000);
+        RegexNode first = RegexNode.parse(deep);
+        RegexNode second = RegexNode.parse(deep);
+        RegexNode other = RegexNode.parse(deep.replaceFirst("a", "b"));
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    void toPostfixMatchesShuntingYard() {
+        String[] regexes = {"(a|b)a*b", "a(a|b)*b", "($|_|s|S)(s|S|d)*", "a{2,3}b{1,}",
+                "a*{2,3}", "(ab)*{2,3}c", "a{2,3}*"};
+        for (String regex : regexes) {
+            assertEquals(Regex.infixToPostfix(regex), RegexNode.parse(regex).toPostfix());
+        }
+    }
+
+    @Test
+    void simplifyFlattens() {
+        assertEquals("ab.c.", simplify("(ab)c"));
+        assertEquals("abc||", simplify("(a|b)|c"));
+        assertEquals("ab.", simplify("aɛb"));
+        assertEquals("ɛ", simplify("()"));
+    }
+
+    @Test
+    void simplifyAlternatives() {
+        assertEquals("ab|", simplify("a|b|a"));
+        assertEquals("a*", simplify("a*|ɛ"));
+        assertEquals("a", simplify("a{1,1}"));
+        assertEquals("a*", simplify("a{0,}"));
+        assertEquals("ɛ", simplify("a{0,0}"));
+    }
+
+    @Test
+    void simplifyStars() {
+        assertEquals("a*", simplify("(a*)*"));
+        assertEquals("ab|*", simplify("(ɛ|a|b*)*"));
+        assertEquals("ɛ", simplify("(ɛ)*"));
+    }
+
+    @Test
+    void simplifyFactorsPrefixes() {
+        // ab|ac|d becomes a(b|c)|d
+        assertEquals("abc|.d|", simplify("(ab)|(ac)|d"));
+        // abc|abd|a becomes a(b(c|d)|ɛ)
+        assertEquals("abcd|.ɛ|.", simplify("(abc)|(abd)|a"));
+    }
+
+    @Test
+    void regexToNFASimplified() {
+        NFA factored = NFA.regexToNFA("(abc)|(abd)");
+        State.setIdCounter(0);
+        NFA plain = NFA.regexToNFA("ab(c|d)");
+
+        assertEquals(plain.getStates().size(), factored.getStates().size());
+        assertEquals(plain.getMoves().size(), factored.getMoves().size());
+    }
+}
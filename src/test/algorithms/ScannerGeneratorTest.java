@@ -0,0 +1,114 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScannerGeneratorTest {
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    private Class<?> load(String source, String className) throws Exception {
+        // Compiles the generated source on its own, with nothing from this project on the path
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        Path file = directory.resolve(simpleName + ".java");
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int status = compiler.run(null, null, null, "-encoding", "UTF-8",
+                "-classpath", "", "-d", directory.toString(), file.toString());
+        assertEquals(0, status);
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null);
+        return loader.loadClass(className);
+    }
+
+    @Test
+    void generate() throws Exception {
+        String regex = "#(a|b|c| |é|\"|\\\\)*#(x{2,3}|y)*";
+        DFA minDfa = DFA.regexToMinDFA(regex);
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(minDfa);
+        Class<?> scanner = load(ScannerGenerator.generate(minDfa, "example.Scanner"),
+                "example.Scanner");
+        Method matches = scanner.getMethod("matches", CharSequence.class);
+        Method longestMatch = scanner.getMethod("longestMatch", CharSequence.class, int.class);
+        Method token = scanner.getMethod("token", CharSequence.class, int.class);
+
+        String[] inputs = {"##", "#abc  cba#", "#a é b#xxy", "#a#xxxx", "#\"\\\"#xxxxx", "#ab",
+                "a#", "#   #yxx", "#Z#", ""};
+        for (String input : inputs) {
+            assertEquals(compiled.matches(input), matches.invoke(null, input), input);
+            for (int from = 0; from <= input.length(); from++) {
+                int end = compiled.longestMatch(input, from);
+                assertEquals(end, longestMatch.invoke(null, input, from), input);
+                assertEquals(end == Matcher.NO_MATCH ? ScannerGenerator.NO_TOKEN : 0,
+                        token.invoke(null, input, from), input);
+            }
+        }
+    }
+
+    @Test
+    void generateWithTokens() throws Exception {
+        // Token 1 for the keyword if, token 2 for the identifier i
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(DFA.regexToMinDFA("i|(if)"));
+        int[] tokens = new int[compiled.getStateCount()];
+        Arrays.fill(tokens, ScannerGenerator.NO_TOKEN);
+        int i = compiled.step(compiled.getStart(), 'i');
+        tokens[i] = 2;
+        tokens[compiled.step(i, 'f')] = 1;
+
+        Class<?> scanner = load(ScannerGenerator.generate(compiled, tokens, "Keywords"),
+                "Keywords");
+        Method token = scanner.getMethod("token", CharSequence.class, int.class);
+        Method longestMatch = scanner.getMethod("longestMatch", CharSequence.class, int.class);
+
+        assertEquals(1, token.invoke(null, "if", 0));
+        assertEquals(2, token.invoke(null, "i", 0));
+        assertEquals(2, token.invoke(null, "ix", 0));
+        assertEquals(1, longestMatch.invoke(null, "ix", 0));
+        assertEquals(ScannerGenerator.NO_TOKEN, token.invoke(null, "x", 0));
+    }
+
+    @Test
+    void packAndUnpack() {
+        int[] values = new int[70000];
+        Arrays.fill(values, 3);
+        values[0] = CompiledDFA.DEAD;
+        values[69999] = 0;
+        String packed = ScannerGenerator.pack(values);
+
+        // The run of 3s is longer than a char can count, so it takes two pairs
+        assertEquals(8, packed.length());
+        assertArrayEquals(values, ScannerGenerator.unpack(packed, values.length));
+    }
+
+    @Test
+    void packRejectsLargeValues() {
+        int[] largest = {Character.MAX_VALUE - 1};
+        assertArrayEquals(largest,
+                ScannerGenerator.unpack(ScannerGenerator.pack(largest), largest.length));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ScannerGenerator.pack(new int[]{Character.MAX_VALUE}));
+        assertThrows(IllegalArgumentException.class,
+                () -> ScannerGenerator.pack(new int[]{70000, 65535}));
+        assertThrows(IllegalArgumentException.class, () -> ScannerGenerator.pack(new int[]{-2}));
+    }
+}
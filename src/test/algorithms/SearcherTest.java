@@ -0,0 +1,133 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearcherTest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    @Test
+    void reverse() {
+        NFA nfa = NFA.regexToNFA("ab*c");
+        DFA reversed = DFA.reverse(DFA.DFAtoMinDFA(DFA.NFAtoDFA(nfa)));
+        CompiledDFA compiled = CompiledDFA.DFAtoCompiledDFA(reversed);
+
+        assertTrue(compiled.matches("ca"));
+        assertTrue(compiled.matches("cbbba"));
+        assertFalse(compiled.matches("abc"));
+        assertFalse(compiled.matches("cb"));
+    }
+
+    @Test
+    void reverseNFA() {
+        NFA reversed = NFA.reverse(NFA.regexToNFA("(ab)|(cd)*"));
+
+        assertTrue(reversed.accepts("ba"));
+        assertTrue(reversed.accepts("dcdc"));
+        assertTrue(reversed.accepts(""));
+        assertFalse(reversed.accepts("ab"));
+    }
+
+    @Test
+    void find() {
+        Searcher searcher = Searcher.regexToSearcher("ab*");
+
+        assertArrayEquals(new int[]{2, 6}, searcher.find("xxabbbyab", 0));
+        assertArrayEquals(new int[]{7, 9}, searcher.find("xxabbbyab", 3));
+        assertNull(searcher.find("xxabbbyab", 8));
+        assertNull(searcher.find("xyz", 0));
+    }
+
+    @Test
+    void findLongest() {
+        // Leftmost-longest, so the longer alternative wins even though it is listed second
+        Searcher searcher = Searcher.regexToSearcher("(a)|(ab)");
+        assertArrayEquals(new int[]{1, 3}, searcher.find("zab", 0));
+    }
+
+    @Test
+    void findAll() {
+        Searcher searcher = Searcher.regexToSearcher("ab*");
+        List<int[]> matches = searcher.findAll("abbxaxxab");
+
+        assertEquals(3, matches.size());
+        assertArrayEquals(new int[]{0, 3}, matches.get(0));
+        assertArrayEquals(new int[]{4, 5}, matches.get(1));
+        assertArrayEquals(new int[]{7, 9}, matches.get(2));
+    }
+
+    @Test
+    void findAllEmpty() {
+        Searcher searcher = Searcher.regexToSearcher("a*");
+        List<int[]> matches = searcher.findAll("baa");
+
+        assertEquals(3, matches.size());
+        assertArrayEquals(new int[]{0, 0}, matches.get(0));
+        assertArrayEquals(new int[]{1, 3}, matches.get(1));
+        assertArrayEquals(new int[]{3, 3}, matches.get(2));
+    }
+
+    @Test
+    void findAllAfterLongPasses() {
+        // Every forward pass reads to the b, so without memoization this is quadratic
+        Searcher searcher = Searcher.regexToSearcher("(a)|(a*b)");
+        String input = "a".repeat(200_000);
+        List<int[]> matches = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> searcher.findAll(input));
+
+        assertEquals(input.length(), matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            assertArrayEquals(new int[]{i, i + 1}, matches.get(i));
+        }
+
+        matches = searcher.findAll("aaxaab");
+        assertEquals(3, matches.size());
+        assertArrayEquals(new int[]{0, 1}, matches.get(0));
+        assertArrayEquals(new int[]{1, 2}, matches.get(1));
+        assertArrayEquals(new int[]{3, 6}, matches.get(2));
+    }
+
+    @Test
+    void findAllAgreesWithFind() {
+        String longRun = "a".repeat(Searcher.SHORT_PASS * 3);
+        assertFindAllAgreesWithFind("(ab*c)|(b{2,3})|(a*)", "abbbcabbbbxaacbbbbbab");
+        assertFindAllAgreesWithFind("(a)|(a*b)", longRun + "b" + longRun + "x" + longRun);
+        assertFindAllAgreesWithFind("(ab)|((ab)*c)", "ab".repeat(Searcher.SHORT_PASS * 2) + "x");
+    }
+
+    private static void assertFindAllAgreesWithFind(String regex, String input) {
+        Searcher searcher = Searcher.regexToSearcher(regex);
+        List<int[]> matches = searcher.findAll(input);
+
+        int from = 0;
+        for (int[] match : matches) {
+            assertArrayEquals(searcher.find(input, from), match, regex + " from " + from);
+            from = match[1] > match[0] ? match[1] : match[1] + 1;
+        }
+        assertTrue(from > input.length() || searcher.find(input, from) == null, regex);
+    }
+
+    @Test
+    void getMatchStartsAgreesWithRestarts() {
+        String regex = "(a|b)*c(d{1,2})";
+        Searcher searcher = Searcher.regexToSearcher(regex);
+        CompiledDFA forward = CompiledDFA.DFAtoCompiledDFA(
+                DFA.regexToMinDFA(regex));
+        String input = "xabcdddcabzcdbacd";
+        boolean[] matchStarts = searcher.getMatchStarts(input);
+
+        for (int i = 0; i <= input.length(); i++) {
+            boolean startsHere = forward.longestMatch(input, i) != Matcher.NO_MATCH;
+            assertEquals(startsHere, matchStarts[i], "offset " + i);
+        }
+    }
+}
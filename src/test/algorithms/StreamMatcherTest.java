@@ -0,0 +1,121 @@
+package algorithms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamMatcherTest {
+
+    @BeforeEach
+    void setUp() {
+        State.setIdCounter(0);
+    }
+
+    private static List<Long> getMatchEnds(String regex, String input) {
+        // Every end offset of a non-empty match, by trying every substring
+        NFA nfa = NFA.regexToNFA(regex);
+        List<Long> ends = new ArrayList<>();
+        for (int end = 1; end <= input.length(); end++) {
+            for (int start = 0; start < end; start++) {
+                if (nfa.accepts(input.substring(start, end))) {
+                    ends.add((long) end);
+                    break;
+                }
+            }
+        }
+        return ends;
+    }
+
+    @Test
+    void feedChars() {
+        String regex = "ab*c";
+        String input = "xacabbbcqqabzabc";
+        List<Long> expected = getMatchEnds(regex, input);
+
+        // Every way of cutting the input in two gives the same matches
+        for (int cut = 0; cut <= input.length(); cut++) {
+            List<Long> ends = new ArrayList<>();
+            StreamMatcher matcher = StreamMatcher.forChars(regex, ends::add);
+            char[] chars = input.toCharArray();
+
+            matcher.feed(chars, 0, cut);
+            matcher.feed(chars, cut, chars.length - cut);
+            matcher.finish();
+            assertEquals(expected, ends, "cut at " + cut);
+        }
+    }
+
+    @Test
+    void feedCharsOneAtATime() {
+        String regex = "(a|b)*abb";
+        String input = "abbabbbaabbab";
+        List<Long> ends = new ArrayList<>();
+        StreamMatcher matcher = StreamMatcher.forChars(regex, ends::add);
+
+        for (char c : input.toCharArray()) {
+            matcher.feed(new char[]{c}, 0, 1);
+        }
+        assertEquals(getMatchEnds(regex, input), ends);
+        assertEquals(input.length(), matcher.getOffset());
+    }
+
+    @Test
+    void feedBytes() {
+        String regex = "é(x|y)*";
+        byte[] input = "aéxxßéy".getBytes(StandardCharsets.UTF_8);
+
+        // é is C3 A9, so cutting after byte 2 splits it across buffers
+        List<Long> ends = new ArrayList<>();
+        StreamMatcher matcher = StreamMatcher.forBytes(regex, ends::add);
+        ByteBuffer first = ByteBuffer.wrap(input, 0, 2);
+        ByteBuffer second = ByteBuffer.wrap(input, 2, input.length - 2);
+
+        matcher.feed(first);
+        matcher.feed(second);
+        assertEquals(List.of(3L, 4L, 5L, 9L, 10L), ends);
+        assertFalse(second.hasRemaining());
+    }
+
+    @Test
+    void feedBytesRetriesLeadByte() {
+        // The second a is no continuation of the é sequence, but it starts a match of its own
+        List<Long> ends = new ArrayList<>();
+        StreamMatcher matcher = StreamMatcher.forBytes("(é)|a", ends::add);
+        matcher.feed(ByteBuffer.wrap(new byte[]{(byte) 0xC3, 'a', 'a'}));
+
+        assertEquals(List.of(2L, 3L), ends);
+    }
+
+    @Test
+    void finishResets() {
+        List<Long> ends = new ArrayList<>();
+        StreamMatcher matcher = StreamMatcher.forChars("ab", ends::add);
+
+        matcher.feed("xa".toCharArray(), 0, 2);
+        matcher.finish();
+        matcher.feed("b".toCharArray(), 0, 1);
+        assertTrue(ends.isEmpty());
+        assertEquals(1, matcher.getOffset());
+    }
+
+    @Test
+    void rejectsEmptyMatches() {
+        assertThrows(IllegalArgumentException.class,
+                () -> StreamMatcher.forChars("a*", end -> {
+                }));
+    }
+
+    @Test
+    void rejectsOtherFeed() {
+        StreamMatcher matcher = StreamMatcher.forChars("a", end -> {
+        });
+        assertThrows(IllegalStateException.class,
+                () -> matcher.feed(ByteBuffer.wrap(new byte[]{'a'})));
+    }
+}
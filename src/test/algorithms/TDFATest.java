@@ -0,0 +1,80 @@
+package algorithms;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TDFATest {
+
+    @Test
+    void matchWithoutGroups() {
+        TDFA tdfa = TDFA.regexToTDFA("a*b");
+
+        assertArrayEquals(new int[]{0, 3}, tdfa.match("aab"));
+        assertNull(tdfa.match("aa"));
+        assertEquals(0, tdfa.getGroupCount());
+    }
+
+    @Test
+    void matchGroups() {
+        // | binds tighter than concatenation, so this is a(b|c)*d
+        TDFA tdfa = TDFA.regexToTDFA("(a)(b|c)*(d)");
+
+        assertArrayEquals(new int[]{0, 4, 0, 1, 2, 3, 3, 4}, tdfa.match("abcd"));
+        assertArrayEquals(new int[]{0, 2, 0, 1, -1, -1, 1, 2}, tdfa.match("ad"));
+        assertNull(tdfa.match("abc"));
+    }
+
+    @Test
+    void matchGreedyStar() {
+        // The first group takes as much as it can and leaves the second group empty
+        TDFA tdfa = TDFA.regexToTDFA("(a*)(a*)");
+
+        assertArrayEquals(new int[]{0, 3, 0, 3, 3, 3}, tdfa.match("aaa"));
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0, 0}, tdfa.match(""));
+    }
+
+    @Test
+    void matchLeftmostAlternative() {
+        TDFA tdfa = TDFA.regexToTDFA("((a)|(ab))((c)|(bc))");
+
+        assertArrayEquals(
+                new int[]{0, 3, 0, 1, 0, 1, -1, -1, 1, 3, -1, -1, 1, 3},
+                tdfa.match("abc"));
+    }
+
+    @Test
+    void matchLastIteration() {
+        TDFA tdfa = TDFA.regexToTDFA("((a|b)(c))*");
+
+        assertArrayEquals(new int[]{0, 6, 4, 6, 4, 5, 5, 6}, tdfa.match("acbcbc"));
+        assertArrayEquals(new int[]{0, 0, -1, -1, -1, -1, -1, -1}, tdfa.match(""));
+    }
+
+    @Test
+    void matchNestedGroups() {
+        TDFA tdfa = TDFA.regexToTDFA("((x)*y)*");
+
+        assertArrayEquals(new int[]{0, 5, 3, 5, 3, 4}, tdfa.match("xxyxy"));
+        assertArrayEquals(new int[]{0, 3, 0, 3, 1, 2}, tdfa.match("xxy"));
+    }
+
+    @Test
+    void matchRepetition() {
+        TDFA tdfa = TDFA.regexToTDFA("(a){2,3}(a*)");
+
+        assertArrayEquals(new int[]{0, 4, 2, 3, 3, 4}, tdfa.match("aaaa"));
+        assertArrayEquals(new int[]{0, 2, 1, 2, 2, 2}, tdfa.match("aa"));
+        assertNull(tdfa.match("a"));
+
+        tdfa = TDFA.regexToTDFA("(b){2,}");
+        assertArrayEquals(new int[]{0, 4, 3, 4}, tdfa.match("bbbb"));
+        assertNull(tdfa.match("b"));
+    }
+
+    @Test
+    void parseInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> TDFA.regexToTDFA("(a"));
+        assertThrows(IllegalArgumentException.class, () -> TDFA.regexToTDFA("a|"));
+    }
+}
@@ -0,0 +1,66 @@
+package algorithms;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+class VectorMultiStreamDFA extends MultiStreamDFA {
+    /* Runs as many inputs as an int vector has lanes in lockstep. Letters are read into a
+    column per lane, the table index of every lane is found with one multiply and add, and the
+    next states are gathered from the table in one load. Lanes whose input has ended read the
+    stay column until the longest input of the batch ends. */
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    VectorMultiStreamDFA(CompiledDFA dfa) {
+        super(dfa);
+    }
+
+    @Override
+    boolean[] matchAll(CharSequence[] inputs) {
+        boolean[] results = new boolean[inputs.length];
+        int[] order = getOrderByLength(inputs);
+        int lanes = SPECIES.length();
+        int[] columns = new int[0];
+        int[] indices = new int[lanes];
+        int[] states = new int[lanes];
+
+        for (int batch = 0; batch < inputs.length; batch += lanes) {
+            int count = Math.min(lanes, inputs.length - batch);
+            int longest = 0;
+            for (int lane = 0; lane < count; lane++) {
+                longest = Math.max(longest, inputs[order[batch + lane]].length());
+            }
+            if (columns.length < longest * lanes) {
+                columns = new int[longest * lanes];
+            }
+
+            // The columns of the whole batch, position by position, one lane after another
+            for (int lane = 0; lane < lanes; lane++) {
+                CharSequence input = lane < count ? inputs[order[batch + lane]] : "";
+                int length = input.length();
+                for (int position = 0; position < longest; position++) {
+                    columns[position * lanes + lane] = position < length
+                            ? getColumn(input.charAt(position))
+                            : stayColumn;
+                }
+            }
+
+            IntVector current = IntVector.broadcast(SPECIES, start);
+            for (int position = 0; position < longest; position++) {
+                IntVector column = IntVector.fromArray(SPECIES, columns, position * lanes);
+                current.mul(width).add(column).intoArray(indices, 0);
+                current = IntVector.fromArray(SPECIES, table, 0, indices, 0);
+            }
+
+            current.intoArray(states, 0);
+            for (int lane = 0; lane < count; lane++) {
+                results[order[batch + lane]] = accepting[states[lane]];
+            }
+        }
+        return results;
+    }
+
+    @Override
+    boolean isVectorized() {
+        return true;
+    }
+}